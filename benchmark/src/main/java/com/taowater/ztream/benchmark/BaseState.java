@@ -0,0 +1,64 @@
+package com.taowater.ztream.benchmark;
+
+import com.taowater.ztream.Ztream;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * 基准公共状态
+ * 每组参数只构建一次数据，ztream与原生stream读取同一份数据
+ *
+ * @author zhu56
+ */
+@State(Scope.Benchmark)
+public class BaseState {
+
+    /**
+     * 分组键的基数
+     */
+    static final int GROUP_COUNT = 1000;
+
+    @Param({"1000", "100000", "10000000"})
+    public int size;
+
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    public List<Item> data;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(56);
+        data = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int amount = random.nextInt(10000);
+            data.add(new Item(
+                    (long) i,
+                    random.nextInt(GROUP_COUNT),
+                    random.nextInt(Math.max(size / 2, 1)),
+                    amount,
+                    amount / 100.0,
+                    BigDecimal.valueOf(amount, 2),
+                    "item" + random.nextInt(GROUP_COUNT)
+            ));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        data = null;
+    }
+
+    public Ztream<Item> ztream() {
+        return Ztream.of(data, parallel);
+    }
+
+    public Stream<Item> stream() {
+        return parallel ? data.parallelStream() : data.stream();
+    }
+}
@@ -0,0 +1,19 @@
+package com.taowater.ztream.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基准公共配置
+ * 1000万级数据单次耗时较长，故采用较少的迭代次数
+ *
+ * @author zhu56
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public abstract class BenchmarkBase {
+}
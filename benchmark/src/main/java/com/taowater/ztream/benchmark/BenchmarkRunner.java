@@ -0,0 +1,37 @@
+package com.taowater.ztream.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+
+/**
+ * 基准入口
+ * 默认附带gc分析器（输出gc.alloc.rate.norm，即每次调用分配的字节数），结果以json写入results目录
+ * 其余参数与jmh命令行一致，例如：java -jar target/benchmarks.jar Group -p size=100000
+ *
+ * @author zhu56
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        String version = System.getProperty("ztream.version", "snapshot");
+        File dir = new File("results");
+        if (!dir.exists() && !dir.mkdirs()) {
+            throw new IllegalStateException("无法创建目录：" + dir.getAbsolutePath());
+        }
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(new File(dir, version + ".json").getPath())
+                .build();
+        new Runner(options).run();
+    }
+}
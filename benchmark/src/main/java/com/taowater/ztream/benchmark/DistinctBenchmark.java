@@ -0,0 +1,27 @@
+package com.taowater.ztream.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * 按属性去重：Distinct.distinct(fun)
+ *
+ * @author zhu56
+ */
+public class DistinctBenchmark extends BenchmarkBase {
+
+    @Benchmark
+    public List<Item> distinctZtream(BaseState state) {
+        return state.ztream().distinct(Item::getKey).toList();
+    }
+
+    @Benchmark
+    public List<Item> distinctStream(BaseState state) {
+        Set<Integer> seen = ConcurrentHashMap.newKeySet();
+        return state.stream().filter(e -> seen.add(e.getKey())).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,112 @@
+package com.taowater.ztream.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 条件过滤：ConditionCompare 的 eq/in/notIn/between/like/isBlank 及 query
+ *
+ * @author zhu56
+ */
+public class FilterBenchmark extends BenchmarkBase {
+
+    @State(Scope.Benchmark)
+    public static class Values {
+
+        /**
+         * in条件的取值，故意用ArrayList以体现contains的开销
+         */
+        public List<Integer> groups;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            groups = new ArrayList<>();
+            for (int i = 0; i < BaseState.GROUP_COUNT; i += 10) {
+                groups.add(i);
+            }
+        }
+    }
+
+    @Benchmark
+    public List<Item> eqZtream(BaseState state) {
+        return state.ztream().eq(Item::getGroup, 56).toList();
+    }
+
+    @Benchmark
+    public List<Item> eqStream(BaseState state) {
+        return state.stream().filter(e -> Objects.equals(56, e.getGroup())).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<Item> inZtream(BaseState state, Values values) {
+        return state.ztream().in(Item::getGroup, values.groups).toList();
+    }
+
+    @Benchmark
+    public List<Item> inStream(BaseState state, Values values) {
+        Set<Integer> set = new HashSet<>(values.groups);
+        return state.stream().filter(e -> set.contains(e.getGroup())).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<Item> notInZtream(BaseState state, Values values) {
+        return state.ztream().notIn(Item::getGroup, values.groups).toList();
+    }
+
+    @Benchmark
+    public List<Item> notInStream(BaseState state, Values values) {
+        Set<Integer> set = new HashSet<>(values.groups);
+        return state.stream().filter(e -> !set.contains(e.getGroup())).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<Item> betweenZtream(BaseState state) {
+        return state.ztream().between(Item::getAmount, 1000, 2000).toList();
+    }
+
+    @Benchmark
+    public List<Item> betweenStream(BaseState state) {
+        return state.stream().filter(e -> e.getAmount() != null && e.getAmount() >= 1000 && e.getAmount() <= 2000).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<Item> likeZtream(BaseState state) {
+        return state.ztream().like(Item::getName, "56").toList();
+    }
+
+    @Benchmark
+    public List<Item> likeStream(BaseState state) {
+        return state.stream().filter(e -> e.getName() != null && e.getName().contains("56")).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<Item> nonBlankZtream(BaseState state) {
+        return state.ztream().nonBlank(Item::getName).toList();
+    }
+
+    @Benchmark
+    public List<Item> nonBlankStream(BaseState state) {
+        return state.stream().filter(e -> e.getName() != null && !e.getName().trim().isEmpty()).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<Item> queryZtream(BaseState state, Values values) {
+        return state.ztream().query(w -> w
+                .ge(Item::getAmount, 1000)
+                .le(Item::getAmount, 9000)
+                .in(Item::getGroup, values.groups)
+        ).toList();
+    }
+
+    @Benchmark
+    public List<Item> queryStream(BaseState state, Values values) {
+        Set<Integer> set = new HashSet<>(values.groups);
+        return state.stream().filter(e -> e.getAmount() != null && e.getAmount() >= 1000 && e.getAmount() <= 9000 && set.contains(e.getGroup())).collect(Collectors.toList());
+    }
+}
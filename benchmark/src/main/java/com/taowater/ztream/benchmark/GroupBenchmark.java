@@ -0,0 +1,35 @@
+package com.taowater.ztream.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 分组：GroupBy.groupBy 与 ToEntry.group
+ *
+ * @author zhu56
+ */
+public class GroupBenchmark extends BenchmarkBase {
+
+    @Benchmark
+    public Map<Integer, List<Item>> groupByZtream(BaseState state) {
+        return state.ztream().groupBy(Item::getGroup);
+    }
+
+    @Benchmark
+    public Map<Integer, List<Item>> groupByStream(BaseState state) {
+        return state.stream().collect(Collectors.groupingBy(Item::getGroup));
+    }
+
+    @Benchmark
+    public Map<Integer, Long> groupCountZtream(BaseState state) {
+        return state.ztream().group(Item::getGroup, Item::getId, Collectors.counting()).toMap();
+    }
+
+    @Benchmark
+    public Map<Integer, Long> groupCountStream(BaseState state) {
+        return state.stream().collect(Collectors.groupingBy(Item::getGroup, Collectors.counting()));
+    }
+}
@@ -0,0 +1,38 @@
+package com.taowater.ztream.benchmark;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * 基准测试用的元素
+ *
+ * @author zhu56
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Item {
+
+    private Long id;
+
+    /**
+     * 分组键，基数较低
+     */
+    private Integer group;
+
+    /**
+     * 去重键，基数较高
+     */
+    private Integer key;
+
+    private Integer amount;
+
+    private Double price;
+
+    private BigDecimal money;
+
+    private String name;
+}
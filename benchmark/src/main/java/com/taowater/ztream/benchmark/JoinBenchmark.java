@@ -0,0 +1,23 @@
+package com.taowater.ztream.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+
+import java.util.stream.Collectors;
+
+/**
+ * 拼接：Join.join
+ *
+ * @author zhu56
+ */
+public class JoinBenchmark extends BenchmarkBase {
+
+    @Benchmark
+    public String joinZtream(BaseState state) {
+        return state.ztream().join(Item::getName);
+    }
+
+    @Benchmark
+    public String joinStream(BaseState state) {
+        return state.stream().map(Item::getName).collect(Collectors.joining(","));
+    }
+}
@@ -0,0 +1,67 @@
+package com.taowater.ztream.benchmark;
+
+import com.taowater.ztream.Any;
+import org.openjdk.jmh.annotations.Benchmark;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * 统计：Math.sum/avg/maxBy
+ *
+ * @author zhu56
+ */
+public class MathBenchmark extends BenchmarkBase {
+
+    @Benchmark
+    public Integer sumIntZtream(BaseState state) {
+        return state.ztream().sum(Item::getAmount);
+    }
+
+    @Benchmark
+    public Integer sumIntStream(BaseState state) {
+        return state.stream().map(Item::getAmount).filter(Objects::nonNull).mapToInt(Integer::intValue).sum();
+    }
+
+    @Benchmark
+    public Double sumDoubleZtream(BaseState state) {
+        return state.ztream().sum(Item::getPrice);
+    }
+
+    @Benchmark
+    public Double sumDoubleStream(BaseState state) {
+        return state.stream().map(Item::getPrice).filter(Objects::nonNull).mapToDouble(Double::doubleValue).sum();
+    }
+
+    @Benchmark
+    public BigDecimal sumDecimalZtream(BaseState state) {
+        return state.ztream().sum(Item::getMoney);
+    }
+
+    @Benchmark
+    public BigDecimal sumDecimalStream(BaseState state) {
+        return state.stream().map(Item::getMoney).filter(Objects::nonNull).reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    @Benchmark
+    public Integer avgZtream(BaseState state) {
+        return state.ztream().avg(Item::getAmount, 0);
+    }
+
+    @Benchmark
+    public Integer avgStream(BaseState state) {
+        return (int) state.stream().map(Item::getAmount).filter(Objects::nonNull).mapToInt(Integer::intValue).average().orElse(0);
+    }
+
+    @Benchmark
+    public Any<Item> maxByZtream(BaseState state) {
+        return state.ztream().maxBy(Item::getAmount);
+    }
+
+    @Benchmark
+    public Optional<Item> maxByStream(BaseState state) {
+        return state.stream().max(Comparator.comparing(Item::getAmount, Comparator.nullsFirst(Comparator.naturalOrder())));
+    }
+}
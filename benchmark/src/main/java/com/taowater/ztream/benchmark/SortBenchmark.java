@@ -0,0 +1,71 @@
+package com.taowater.ztream.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 排序：Sort.asc/desc/topK/shuffle/reverse
+ *
+ * @author zhu56
+ */
+public class SortBenchmark extends BenchmarkBase {
+
+    @Benchmark
+    public List<Item> ascZtream(BaseState state) {
+        return state.ztream().asc(Item::getAmount).toList();
+    }
+
+    @Benchmark
+    public List<Item> ascStream(BaseState state) {
+        return state.stream().sorted(Comparator.nullsFirst(Comparator.comparing(Item::getAmount, Comparator.nullsFirst(Comparator.naturalOrder())))).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<Item> descZtream(BaseState state) {
+        return state.ztream().desc(Item::getAmount).toList();
+    }
+
+    @Benchmark
+    public List<Item> descStream(BaseState state) {
+        return state.stream().sorted(Comparator.nullsFirst(Comparator.comparing(Item::getAmount, Comparator.nullsFirst(Comparator.reverseOrder())))).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<Item> topKZtream(BaseState state) {
+        return state.ztream().topK(20, r -> r.desc(Item::getAmount)).toList();
+    }
+
+    @Benchmark
+    public List<Item> topKStream(BaseState state) {
+        return state.stream().sorted(Comparator.nullsFirst(Comparator.comparing(Item::getAmount, Comparator.nullsFirst(Comparator.reverseOrder())))).limit(20).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<Item> shuffleZtream(BaseState state) {
+        return state.ztream().shuffle().toList();
+    }
+
+    @Benchmark
+    public List<Item> shuffleStream(BaseState state) {
+        List<Item> list = state.stream().collect(Collectors.toCollection(ArrayList::new));
+        Collections.shuffle(list);
+        return list;
+    }
+
+    @Benchmark
+    public List<Item> reverseZtream(BaseState state) {
+        return state.ztream().reverse().toList();
+    }
+
+    @Benchmark
+    public List<Item> reverseStream(BaseState state) {
+        List<Item> list = state.stream().collect(Collectors.toCollection(ArrayList::new));
+        Collections.reverse(list);
+        return list;
+    }
+}
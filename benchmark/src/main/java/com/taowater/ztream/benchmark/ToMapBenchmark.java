@@ -0,0 +1,24 @@
+package com.taowater.ztream.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 映射：ToMap.toMap
+ *
+ * @author zhu56
+ */
+public class ToMapBenchmark extends BenchmarkBase {
+
+    @Benchmark
+    public Map<Long, Integer> toMapZtream(BaseState state) {
+        return state.ztream().toMap(Item::getId, Item::getAmount);
+    }
+
+    @Benchmark
+    public Map<Long, Integer> toMapStream(BaseState state) {
+        return state.stream().collect(Collectors.toMap(Item::getId, Item::getAmount, (a, b) -> a));
+    }
+}
@@ -1,6 +1,9 @@
 package com.taowater.ztream;
 
 
+import com.taowater.ztream.assist.ExCollectors;
+import com.taowater.ztream.assist.Sources;
+import com.taowater.ztream.assist.Spliterators;
 import com.taowater.ztream.op.Collect;
 import com.taowater.ztream.op.Join;
 import com.taowater.ztream.op.ToEntry;
@@ -9,7 +12,12 @@ import com.taowater.ztream.op.judge.Judge;
 import com.taowater.ztream.op.math.Math;
 import com.taowater.ztream.op.sort.Sort;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Spliterator;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * 抽象增强流
@@ -23,9 +31,27 @@ public abstract class AbstractZtream<T, S extends AbstractZtream<T, S>> implemen
         ToEntry<T, S>,
         Judge<T, S> {
     protected final Stream<T> stream;
+    /**
+     * 流的数据源（列表、数组等），仅在未经任何中间操作时存在
+     */
+    protected final Object source;
+    /**
+     * 与流元素个数相同的数据源，经过不改变个数和顺序的中间操作（如map、peek）后仍然存在
+     */
+    protected final Object sizeSource;
 
     protected AbstractZtream(Stream<T> stream) {
+        this(stream, null);
+    }
+
+    protected AbstractZtream(Stream<T> stream, Object source) {
+        this(stream, source, source);
+    }
+
+    protected AbstractZtream(Stream<T> stream, Object source, Object sizeSource) {
         this.stream = stream;
+        this.source = source;
+        this.sizeSource = sizeSource;
     }
 
     @Override
@@ -39,6 +65,9 @@ public abstract class AbstractZtream<T, S extends AbstractZtream<T, S>> implemen
      * @return {@link Any}<{@link T}>
      */
     public Any<T> first() {
+        if (Sources.indexed(source)) {
+            return Any.of(claim() == 0 ? null : Sources.<T>get(source, 0));
+        }
         return Any.of(findFirst(false).orElse(null));
     }
 
@@ -66,9 +95,65 @@ public abstract class AbstractZtream<T, S extends AbstractZtream<T, S>> implemen
      * @return {@link Any }<{@link T }>
      */
     public Any<T> last() {
+        if (Sources.indexed(source)) {
+            int size = claim();
+            return Any.of(size == 0 ? null : Sources.<T>get(source, size - 1));
+        }
         return Any.of(stream.reduce((a, b) -> b).orElse(null));
     }
 
+    /**
+     * 元素个数
+     * 数据源为集合或数组且只经过不改变个数的中间操作时直接取数据源的大小，此时不会执行map、peek等操作
+     *
+     * @return long
+     */
+    @Override
+    public long count() {
+        long size = Sources.size(sizeSource);
+        if (size < 0) {
+            return stream.count();
+        }
+        spliterator();
+        return size;
+    }
+
+    @Override
+    public boolean isNotEmpty() {
+        long size = Sources.size(sizeSource);
+        if (size < 0) {
+            return Judge.super.isNotEmpty();
+        }
+        spliterator();
+        return size > 0;
+    }
+
+    /**
+     * 收集为{@link ArrayList}
+     * 未经中间操作的集合或数组直接复制
+     *
+     * @return ArrayList 集合
+     */
+    @Override
+    public List<T> toList() {
+        List<T> list = Sources.toList(source);
+        if (Objects.isNull(list)) {
+            return Collect.super.toList();
+        }
+        spliterator();
+        return list;
+    }
+
+    /**
+     * 占用原流，保持流只能消费一次的语义
+     *
+     * @return 可按下标取值的数据源的大小
+     */
+    private int claim() {
+        spliterator();
+        return (int) Sources.size(source);
+    }
+
     /**
      * 获取最后一个
      *
@@ -78,12 +163,32 @@ public abstract class AbstractZtream<T, S extends AbstractZtream<T, S>> implemen
         return last().orElse(null);
     }
 
+    /**
+     * 反转顺序
+     * 数据源为可随机访问的列表、数组或双端队列时直接倒序遍历，不复制
+     *
+     * @param condition 执行条件
+     */
+    @Override
+    public S reverse(boolean condition) {
+        Spliterator<T> reversed = condition ? Spliterators.reverse(source) : null;
+        if (Objects.isNull(reversed)) {
+            return Sort.super.reverse(condition);
+        }
+        boolean parallel = isParallel();
+        // 占用原流，保持流只能消费一次的语义
+        spliterator();
+        return ztream(StreamSupport.stream(reversed, parallel).onClose(this::close));
+    }
+
     /**
      * 随机取一个
+     * 蓄水池抽样，一次遍历且不缓冲
      *
      * @return {@link Any}<{@link T}>
      */
     public Any<T> random() {
-        return shuffle().first();
+        List<T> sample = collect(ExCollectors.sample(1, null));
+        return Any.of(sample.isEmpty() ? null : sample.get(0));
     }
 }
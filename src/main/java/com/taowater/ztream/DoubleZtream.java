@@ -0,0 +1,428 @@
+package com.taowater.ztream;
+
+import com.taowater.ztream.assist.PrimitiveSets;
+import com.taowater.ztream.assist.Spliterators;
+import com.taowater.ztream.op.math.Peak;
+
+import java.util.*;
+import java.util.function.*;
+import java.util.stream.DoubleStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * double增强流
+ * 元素全程不装箱，需要对象流时通过{@link #boxed()}转换
+ *
+ * @author zhu56
+ */
+@SuppressWarnings("unused")
+public final class DoubleZtream implements DoubleStream {
+
+    private final DoubleStream stream;
+
+    DoubleZtream(DoubleStream stream) {
+        this.stream = stream;
+    }
+
+    /**
+     * 从标准流创建增强流
+     *
+     * @param stream 流
+     * @return {@link DoubleZtream}
+     */
+    public static DoubleZtream of(DoubleStream stream) {
+        return Objects.isNull(stream) ? empty() : new DoubleZtream(stream);
+    }
+
+    /**
+     * 不定量元素创建流
+     *
+     * @param values 若干元素
+     * @return {@link DoubleZtream}
+     */
+    public static DoubleZtream of(double... values) {
+        return Objects.isNull(values) ? empty() : new DoubleZtream(Arrays.stream(values));
+    }
+
+    public static DoubleZtream empty() {
+        return new DoubleZtream(DoubleStream.empty());
+    }
+
+    /**
+     * 获取原始流
+     */
+    public DoubleStream stream() {
+        return stream;
+    }
+
+    private DoubleZtream ztream(DoubleStream stream) {
+        return new DoubleZtream(stream);
+    }
+
+    /**
+     * 去重
+     * 串行时基于基本类型集合去重，并行时退回标准流的去重
+     *
+     * @return {@link DoubleZtream}
+     */
+    @Override
+    public DoubleZtream distinct() {
+        if (isParallel()) {
+            return ztream(stream.distinct());
+        }
+        return ztream(StreamSupport.doubleStream(new Spliterators.DoubleDistinctSpliterator(stream.spliterator()), false).onClose(stream::close));
+    }
+
+    /**
+     * 过滤在指定值中的元素
+     *
+     * @param values 值
+     */
+    public DoubleZtream in(double... values) {
+        PrimitiveSets.LongSet set = bitsSet(values);
+        return filter(e -> set.contains(Double.doubleToLongBits(e)));
+    }
+
+    /**
+     * 过滤不在指定值中的元素
+     *
+     * @param values 值
+     */
+    public DoubleZtream notIn(double... values) {
+        PrimitiveSets.LongSet set = bitsSet(values);
+        return filter(e -> !set.contains(Double.doubleToLongBits(e)));
+    }
+
+    /**
+     * 以doubleToLongBits构建集合，判等与{@link Double#equals(Object)}一致
+     */
+    private static PrimitiveSets.LongSet bitsSet(double... values) {
+        if (Objects.isNull(values)) {
+            return new PrimitiveSets.LongSet();
+        }
+        PrimitiveSets.LongSet set = new PrimitiveSets.LongSet(values.length);
+        for (double value : values) {
+            set.add(Double.doubleToLongBits(value));
+        }
+        return set;
+    }
+
+    /**
+     * 区间
+     *
+     * @param leftValue  左值
+     * @param rightValue 右值
+     */
+    public DoubleZtream between(double leftValue, double rightValue) {
+        return filter(e -> e >= leftValue && e <= rightValue);
+    }
+
+    /**
+     * 分页
+     *
+     * @param no   页码
+     * @param size 页长
+     */
+    public DoubleZtream page(long no, long size) {
+        return skip((no - 1) * size).limit(size);
+    }
+
+    /**
+     * 平均值
+     *
+     * @param defaultValue 默认值
+     * @return 平均值
+     */
+    public double avg(double defaultValue) {
+        return stream.average().orElse(defaultValue);
+    }
+
+    /**
+     * 最值
+     *
+     * @return 最值，流为空时均为null
+     */
+    public Peak<Double> peak() {
+        DoubleSummaryStatistics statistics = stream.summaryStatistics();
+        if (statistics.getCount() == 0) {
+            return new Peak<>();
+        }
+        return new Peak<>(statistics.getMax(), statistics.getMin());
+    }
+
+    /**
+     * 分组
+     * 组内元素以double数组保存
+     *
+     * @param funK 分组依据
+     * @return 分组结果
+     */
+    public <K> Map<K, double[]> groupBy(DoubleFunction<? extends K> funK) {
+        Map<K, DoubleBuffer> map = stream.collect(HashMap::new,
+                (m, e) -> m.computeIfAbsent(funK.apply(e), k -> new DoubleBuffer()).add(e),
+                (m1, m2) -> m2.forEach((k, v) -> m1.merge(k, v, DoubleBuffer::addAll)));
+        Map<K, double[]> result = new HashMap<>(Math.max((int) (map.size() / .75f) + 1, 16));
+        map.forEach((k, v) -> result.put(k, v.toArray()));
+        return result;
+    }
+
+    /**
+     * 返回拼接后的字符串
+     *
+     * @return 拼接后的字符串
+     */
+    public String join() {
+        return join(",");
+    }
+
+    /**
+     * 返回拼接后的字符串
+     *
+     * @param delimiter 分隔符
+     * @return 拼接后的字符串
+     */
+    public String join(CharSequence delimiter) {
+        return stream.collect(() -> new StringJoiner(delimiter), (j, e) -> j.add(Double.toString(e)), StringJoiner::merge).toString();
+    }
+
+    /**
+     * 找到符合条件的第一个元素的下标
+     *
+     * @param predicate 判断函数
+     * @return int 下标，不存在时为-1
+     */
+    public int firstIdx(DoublePredicate predicate) {
+        Spliterator.OfDouble spliterator = stream.spliterator();
+        boolean[] hit = {false};
+        int index = 0;
+        while (spliterator.tryAdvance((double e) -> hit[0] = predicate.test(e))) {
+            if (hit[0]) {
+                return index;
+            }
+            index++;
+        }
+        return -1;
+    }
+
+    /**
+     * 收集为{@link ArrayList}
+     *
+     * @return ArrayList 集合
+     */
+    public List<Double> toList() {
+        return boxed().toList();
+    }
+
+    @Override
+    public DoubleZtream filter(DoublePredicate predicate) {
+        return ztream(stream.filter(predicate));
+    }
+
+    @Override
+    public DoubleZtream map(DoubleUnaryOperator mapper) {
+        return ztream(stream.map(mapper));
+    }
+
+    @Override
+    public <U> Ztream<U> mapToObj(DoubleFunction<? extends U> mapper) {
+        return Ztream.of(stream.mapToObj(mapper));
+    }
+
+    @Override
+    public IntZtream mapToInt(DoubleToIntFunction mapper) {
+        return IntZtream.of(stream.mapToInt(mapper));
+    }
+
+    @Override
+    public LongZtream mapToLong(DoubleToLongFunction mapper) {
+        return LongZtream.of(stream.mapToLong(mapper));
+    }
+
+    @Override
+    public DoubleZtream flatMap(DoubleFunction<? extends DoubleStream> mapper) {
+        return ztream(stream.flatMap(mapper));
+    }
+
+    @Override
+    public DoubleZtream sorted() {
+        return ztream(stream.sorted());
+    }
+
+    @Override
+    public DoubleZtream peek(DoubleConsumer action) {
+        return ztream(stream.peek(action));
+    }
+
+    @Override
+    public DoubleZtream limit(long maxSize) {
+        return ztream(stream.limit(maxSize));
+    }
+
+    @Override
+    public DoubleZtream skip(long n) {
+        return ztream(stream.skip(n));
+    }
+
+    @Override
+    public void forEach(DoubleConsumer action) {
+        stream.forEach(action);
+    }
+
+    @Override
+    public void forEachOrdered(DoubleConsumer action) {
+        stream.forEachOrdered(action);
+    }
+
+    @Override
+    public double[] toArray() {
+        return stream.toArray();
+    }
+
+    @Override
+    public double reduce(double identity, DoubleBinaryOperator op) {
+        return stream.reduce(identity, op);
+    }
+
+    @Override
+    public OptionalDouble reduce(DoubleBinaryOperator op) {
+        return stream.reduce(op);
+    }
+
+    @Override
+    public <R> R collect(Supplier<R> supplier, ObjDoubleConsumer<R> accumulator, BiConsumer<R, R> combiner) {
+        return stream.collect(supplier, accumulator, combiner);
+    }
+
+    @Override
+    public double sum() {
+        return stream.sum();
+    }
+
+    @Override
+    public OptionalDouble min() {
+        return stream.min();
+    }
+
+    @Override
+    public OptionalDouble max() {
+        return stream.max();
+    }
+
+    @Override
+    public long count() {
+        return stream.count();
+    }
+
+    @Override
+    public OptionalDouble average() {
+        return stream.average();
+    }
+
+    @Override
+    public DoubleSummaryStatistics summaryStatistics() {
+        return stream.summaryStatistics();
+    }
+
+    @Override
+    public boolean anyMatch(DoublePredicate predicate) {
+        return stream.anyMatch(predicate);
+    }
+
+    @Override
+    public boolean allMatch(DoublePredicate predicate) {
+        return stream.allMatch(predicate);
+    }
+
+    @Override
+    public boolean noneMatch(DoublePredicate predicate) {
+        return stream.noneMatch(predicate);
+    }
+
+    @Override
+    public OptionalDouble findFirst() {
+        return stream.findFirst();
+    }
+
+    @Override
+    public OptionalDouble findAny() {
+        return stream.findAny();
+    }
+
+    /**
+     * 装箱为对象流
+     *
+     * @return {@link Ztream}<{@link Integer}>
+     */
+    @Override
+    public Ztream<Double> boxed() {
+        return Ztream.of(stream.boxed());
+    }
+
+    @Override
+    public DoubleZtream sequential() {
+        return ztream(stream.sequential());
+    }
+
+    @Override
+    public DoubleZtream parallel() {
+        return ztream(stream.parallel());
+    }
+
+    @Override
+    public PrimitiveIterator.OfDouble iterator() {
+        return stream.iterator();
+    }
+
+    @Override
+    public Spliterator.OfDouble spliterator() {
+        return stream.spliterator();
+    }
+
+    @Override
+    public boolean isParallel() {
+        return stream.isParallel();
+    }
+
+    @Override
+    public DoubleZtream unordered() {
+        return ztream(stream.unordered());
+    }
+
+    @Override
+    public DoubleZtream onClose(Runnable closeHandler) {
+        return ztream(stream.onClose(closeHandler));
+    }
+
+    @Override
+    public void close() {
+        stream.close();
+    }
+
+    /**
+     * 可增长的double数组
+     */
+    private static class DoubleBuffer {
+        private double[] values = new double[8];
+        private int size;
+
+        void add(double value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size << 1);
+            }
+            values[size++] = value;
+        }
+
+        DoubleBuffer addAll(DoubleBuffer other) {
+            if (size + other.size > values.length) {
+                values = Arrays.copyOf(values, Math.max(size + other.size, size << 1));
+            }
+            System.arraycopy(other.values, 0, values, size, other.size);
+            size += other.size;
+            return this;
+        }
+
+        double[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
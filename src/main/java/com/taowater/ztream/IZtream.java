@@ -35,33 +35,33 @@ public interface IZtream<T, S extends Stream<T>> extends Stream<T>, Iterable<T>
     }
 
     @Override
-    default IntStream mapToInt(ToIntFunction<? super T> mapper) {
-        return stream().mapToInt(mapper);
+    default IntZtream mapToInt(ToIntFunction<? super T> mapper) {
+        return IntZtream.of(stream().mapToInt(mapper));
     }
 
     @Override
-    default LongStream mapToLong(ToLongFunction<? super T> mapper) {
-        return stream().mapToLong(mapper);
+    default LongZtream mapToLong(ToLongFunction<? super T> mapper) {
+        return LongZtream.of(stream().mapToLong(mapper));
     }
 
     @Override
-    default DoubleStream mapToDouble(ToDoubleFunction<? super T> mapper) {
-        return stream().mapToDouble(mapper);
+    default DoubleZtream mapToDouble(ToDoubleFunction<? super T> mapper) {
+        return DoubleZtream.of(stream().mapToDouble(mapper));
     }
 
     @Override
-    default IntStream flatMapToInt(Function<? super T, ? extends IntStream> mapper) {
-        return stream().flatMapToInt(mapper);
+    default IntZtream flatMapToInt(Function<? super T, ? extends IntStream> mapper) {
+        return IntZtream.of(stream().flatMapToInt(mapper));
     }
 
     @Override
-    default LongStream flatMapToLong(Function<? super T, ? extends LongStream> mapper) {
-        return stream().flatMapToLong(mapper);
+    default LongZtream flatMapToLong(Function<? super T, ? extends LongStream> mapper) {
+        return LongZtream.of(stream().flatMapToLong(mapper));
     }
 
     @Override
-    default DoubleStream flatMapToDouble(Function<? super T, ? extends DoubleStream> mapper) {
-        return stream().flatMapToDouble(mapper);
+    default DoubleZtream flatMapToDouble(Function<? super T, ? extends DoubleStream> mapper) {
+        return DoubleZtream.of(stream().flatMapToDouble(mapper));
     }
 
     @Override
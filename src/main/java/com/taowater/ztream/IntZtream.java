@@ -0,0 +1,435 @@
+package com.taowater.ztream;
+
+import com.taowater.ztream.assist.PrimitiveSets;
+import com.taowater.ztream.assist.Spliterators;
+import com.taowater.ztream.op.math.Peak;
+
+import java.util.*;
+import java.util.function.*;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * int增强流
+ * 元素全程不装箱，需要对象流时通过{@link #boxed()}转换
+ *
+ * @author zhu56
+ */
+@SuppressWarnings("unused")
+public final class IntZtream implements IntStream {
+
+    private final IntStream stream;
+
+    IntZtream(IntStream stream) {
+        this.stream = stream;
+    }
+
+    /**
+     * 从标准流创建增强流
+     *
+     * @param stream 流
+     * @return {@link IntZtream}
+     */
+    public static IntZtream of(IntStream stream) {
+        return Objects.isNull(stream) ? empty() : new IntZtream(stream);
+    }
+
+    /**
+     * 不定量元素创建流
+     *
+     * @param values 若干元素
+     * @return {@link IntZtream}
+     */
+    public static IntZtream of(int... values) {
+        return Objects.isNull(values) ? empty() : new IntZtream(Arrays.stream(values));
+    }
+
+    public static IntZtream empty() {
+        return new IntZtream(IntStream.empty());
+    }
+
+    /**
+     * 数字范围构建流
+     *
+     * @param start  开始
+     * @param end    结束
+     * @param closed 是否包含尾数
+     */
+    public static IntZtream range(int start, int end, boolean closed) {
+        return new IntZtream(closed ? IntStream.rangeClosed(start, end) : IntStream.range(start, end));
+    }
+
+    /**
+     * 获取原始流
+     */
+    public IntStream stream() {
+        return stream;
+    }
+
+    private IntZtream ztream(IntStream stream) {
+        return new IntZtream(stream);
+    }
+
+    /**
+     * 去重
+     * 串行时基于基本类型集合去重，并行时退回标准流的去重
+     *
+     * @return {@link IntZtream}
+     */
+    @Override
+    public IntZtream distinct() {
+        if (isParallel()) {
+            return ztream(stream.distinct());
+        }
+        return ztream(StreamSupport.intStream(new Spliterators.IntDistinctSpliterator(stream.spliterator()), false).onClose(stream::close));
+    }
+
+    /**
+     * 过滤在指定值中的元素
+     *
+     * @param values 值
+     */
+    public IntZtream in(int... values) {
+        PrimitiveSets.IntSet set = PrimitiveSets.IntSet.of(Objects.isNull(values) ? new int[0] : values);
+        return filter(set::contains);
+    }
+
+    /**
+     * 过滤不在指定值中的元素
+     *
+     * @param values 值
+     */
+    public IntZtream notIn(int... values) {
+        PrimitiveSets.IntSet set = PrimitiveSets.IntSet.of(Objects.isNull(values) ? new int[0] : values);
+        return filter(e -> !set.contains(e));
+    }
+
+    /**
+     * 区间
+     *
+     * @param leftValue  左值
+     * @param rightValue 右值
+     */
+    public IntZtream between(int leftValue, int rightValue) {
+        return filter(e -> e >= leftValue && e <= rightValue);
+    }
+
+    /**
+     * 分页
+     *
+     * @param no   页码
+     * @param size 页长
+     */
+    public IntZtream page(long no, long size) {
+        return skip((no - 1) * size).limit(size);
+    }
+
+    /**
+     * 平均值
+     *
+     * @param defaultValue 默认值
+     * @return 平均值
+     */
+    public double avg(double defaultValue) {
+        return stream.average().orElse(defaultValue);
+    }
+
+    /**
+     * 最值
+     *
+     * @return 最值，流为空时均为null
+     */
+    public Peak<Integer> peak() {
+        IntSummaryStatistics statistics = stream.summaryStatistics();
+        if (statistics.getCount() == 0) {
+            return new Peak<>();
+        }
+        return new Peak<>(statistics.getMax(), statistics.getMin());
+    }
+
+    /**
+     * 分组
+     * 组内元素以int数组保存
+     *
+     * @param funK 分组依据
+     * @return 分组结果
+     */
+    public <K> Map<K, int[]> groupBy(IntFunction<? extends K> funK) {
+        Map<K, IntBuffer> map = stream.collect(HashMap::new,
+                (m, e) -> m.computeIfAbsent(funK.apply(e), k -> new IntBuffer()).add(e),
+                (m1, m2) -> m2.forEach((k, v) -> m1.merge(k, v, IntBuffer::addAll)));
+        Map<K, int[]> result = new HashMap<>(Math.max((int) (map.size() / .75f) + 1, 16));
+        map.forEach((k, v) -> result.put(k, v.toArray()));
+        return result;
+    }
+
+    /**
+     * 返回拼接后的字符串
+     *
+     * @return 拼接后的字符串
+     */
+    public String join() {
+        return join(",");
+    }
+
+    /**
+     * 返回拼接后的字符串
+     *
+     * @param delimiter 分隔符
+     * @return 拼接后的字符串
+     */
+    public String join(CharSequence delimiter) {
+        return stream.collect(() -> new StringJoiner(delimiter), (j, e) -> j.add(Integer.toString(e)), StringJoiner::merge).toString();
+    }
+
+    /**
+     * 找到符合条件的第一个元素的下标
+     *
+     * @param predicate 判断函数
+     * @return int 下标，不存在时为-1
+     */
+    public int firstIdx(IntPredicate predicate) {
+        Spliterator.OfInt spliterator = stream.spliterator();
+        boolean[] hit = {false};
+        int index = 0;
+        while (spliterator.tryAdvance((int e) -> hit[0] = predicate.test(e))) {
+            if (hit[0]) {
+                return index;
+            }
+            index++;
+        }
+        return -1;
+    }
+
+    /**
+     * 收集为{@link ArrayList}
+     *
+     * @return ArrayList 集合
+     */
+    public List<Integer> toList() {
+        return boxed().toList();
+    }
+
+    @Override
+    public IntZtream filter(IntPredicate predicate) {
+        return ztream(stream.filter(predicate));
+    }
+
+    @Override
+    public IntZtream map(IntUnaryOperator mapper) {
+        return ztream(stream.map(mapper));
+    }
+
+    @Override
+    public <U> Ztream<U> mapToObj(IntFunction<? extends U> mapper) {
+        return Ztream.of(stream.mapToObj(mapper));
+    }
+
+    @Override
+    public LongZtream mapToLong(IntToLongFunction mapper) {
+        return LongZtream.of(stream.mapToLong(mapper));
+    }
+
+    @Override
+    public DoubleZtream mapToDouble(IntToDoubleFunction mapper) {
+        return DoubleZtream.of(stream.mapToDouble(mapper));
+    }
+
+    @Override
+    public IntZtream flatMap(IntFunction<? extends IntStream> mapper) {
+        return ztream(stream.flatMap(mapper));
+    }
+
+    @Override
+    public IntZtream sorted() {
+        return ztream(stream.sorted());
+    }
+
+    @Override
+    public IntZtream peek(IntConsumer action) {
+        return ztream(stream.peek(action));
+    }
+
+    @Override
+    public IntZtream limit(long maxSize) {
+        return ztream(stream.limit(maxSize));
+    }
+
+    @Override
+    public IntZtream skip(long n) {
+        return ztream(stream.skip(n));
+    }
+
+    @Override
+    public void forEach(IntConsumer action) {
+        stream.forEach(action);
+    }
+
+    @Override
+    public void forEachOrdered(IntConsumer action) {
+        stream.forEachOrdered(action);
+    }
+
+    @Override
+    public int[] toArray() {
+        return stream.toArray();
+    }
+
+    @Override
+    public int reduce(int identity, IntBinaryOperator op) {
+        return stream.reduce(identity, op);
+    }
+
+    @Override
+    public OptionalInt reduce(IntBinaryOperator op) {
+        return stream.reduce(op);
+    }
+
+    @Override
+    public <R> R collect(Supplier<R> supplier, ObjIntConsumer<R> accumulator, BiConsumer<R, R> combiner) {
+        return stream.collect(supplier, accumulator, combiner);
+    }
+
+    @Override
+    public int sum() {
+        return stream.sum();
+    }
+
+    @Override
+    public OptionalInt min() {
+        return stream.min();
+    }
+
+    @Override
+    public OptionalInt max() {
+        return stream.max();
+    }
+
+    @Override
+    public long count() {
+        return stream.count();
+    }
+
+    @Override
+    public OptionalDouble average() {
+        return stream.average();
+    }
+
+    @Override
+    public IntSummaryStatistics summaryStatistics() {
+        return stream.summaryStatistics();
+    }
+
+    @Override
+    public boolean anyMatch(IntPredicate predicate) {
+        return stream.anyMatch(predicate);
+    }
+
+    @Override
+    public boolean allMatch(IntPredicate predicate) {
+        return stream.allMatch(predicate);
+    }
+
+    @Override
+    public boolean noneMatch(IntPredicate predicate) {
+        return stream.noneMatch(predicate);
+    }
+
+    @Override
+    public OptionalInt findFirst() {
+        return stream.findFirst();
+    }
+
+    @Override
+    public OptionalInt findAny() {
+        return stream.findAny();
+    }
+
+    @Override
+    public LongZtream asLongStream() {
+        return LongZtream.of(stream.asLongStream());
+    }
+
+    @Override
+    public DoubleZtream asDoubleStream() {
+        return DoubleZtream.of(stream.asDoubleStream());
+    }
+
+    /**
+     * 装箱为对象流
+     *
+     * @return {@link Ztream}<{@link Integer}>
+     */
+    @Override
+    public Ztream<Integer> boxed() {
+        return Ztream.of(stream.boxed());
+    }
+
+    @Override
+    public IntZtream sequential() {
+        return ztream(stream.sequential());
+    }
+
+    @Override
+    public IntZtream parallel() {
+        return ztream(stream.parallel());
+    }
+
+    @Override
+    public PrimitiveIterator.OfInt iterator() {
+        return stream.iterator();
+    }
+
+    @Override
+    public Spliterator.OfInt spliterator() {
+        return stream.spliterator();
+    }
+
+    @Override
+    public boolean isParallel() {
+        return stream.isParallel();
+    }
+
+    @Override
+    public IntZtream unordered() {
+        return ztream(stream.unordered());
+    }
+
+    @Override
+    public IntZtream onClose(Runnable closeHandler) {
+        return ztream(stream.onClose(closeHandler));
+    }
+
+    @Override
+    public void close() {
+        stream.close();
+    }
+
+    /**
+     * 可增长的int数组
+     */
+    private static class IntBuffer {
+        private int[] values = new int[8];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size << 1);
+            }
+            values[size++] = value;
+        }
+
+        IntBuffer addAll(IntBuffer other) {
+            if (size + other.size > values.length) {
+                values = Arrays.copyOf(values, Math.max(size + other.size, size << 1));
+            }
+            System.arraycopy(other.values, 0, values, size, other.size);
+            size += other.size;
+            return this;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,430 @@
+package com.taowater.ztream;
+
+import com.taowater.ztream.assist.PrimitiveSets;
+import com.taowater.ztream.assist.Spliterators;
+import com.taowater.ztream.op.math.Peak;
+
+import java.util.*;
+import java.util.function.*;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * long增强流
+ * 元素全程不装箱，需要对象流时通过{@link #boxed()}转换
+ *
+ * @author zhu56
+ */
+@SuppressWarnings("unused")
+public final class LongZtream implements LongStream {
+
+    private final LongStream stream;
+
+    LongZtream(LongStream stream) {
+        this.stream = stream;
+    }
+
+    /**
+     * 从标准流创建增强流
+     *
+     * @param stream 流
+     * @return {@link LongZtream}
+     */
+    public static LongZtream of(LongStream stream) {
+        return Objects.isNull(stream) ? empty() : new LongZtream(stream);
+    }
+
+    /**
+     * 不定量元素创建流
+     *
+     * @param values 若干元素
+     * @return {@link LongZtream}
+     */
+    public static LongZtream of(long... values) {
+        return Objects.isNull(values) ? empty() : new LongZtream(Arrays.stream(values));
+    }
+
+    public static LongZtream empty() {
+        return new LongZtream(LongStream.empty());
+    }
+
+    /**
+     * 数字范围构建流
+     *
+     * @param start  开始
+     * @param end    结束
+     * @param closed 是否包含尾数
+     */
+    public static LongZtream range(long start, long end, boolean closed) {
+        return new LongZtream(closed ? LongStream.rangeClosed(start, end) : LongStream.range(start, end));
+    }
+
+    /**
+     * 获取原始流
+     */
+    public LongStream stream() {
+        return stream;
+    }
+
+    private LongZtream ztream(LongStream stream) {
+        return new LongZtream(stream);
+    }
+
+    /**
+     * 去重
+     * 串行时基于基本类型集合去重，并行时退回标准流的去重
+     *
+     * @return {@link LongZtream}
+     */
+    @Override
+    public LongZtream distinct() {
+        if (isParallel()) {
+            return ztream(stream.distinct());
+        }
+        return ztream(StreamSupport.longStream(new Spliterators.LongDistinctSpliterator(stream.spliterator()), false).onClose(stream::close));
+    }
+
+    /**
+     * 过滤在指定值中的元素
+     *
+     * @param values 值
+     */
+    public LongZtream in(long... values) {
+        PrimitiveSets.LongSet set = PrimitiveSets.LongSet.of(Objects.isNull(values) ? new long[0] : values);
+        return filter(set::contains);
+    }
+
+    /**
+     * 过滤不在指定值中的元素
+     *
+     * @param values 值
+     */
+    public LongZtream notIn(long... values) {
+        PrimitiveSets.LongSet set = PrimitiveSets.LongSet.of(Objects.isNull(values) ? new long[0] : values);
+        return filter(e -> !set.contains(e));
+    }
+
+    /**
+     * 区间
+     *
+     * @param leftValue  左值
+     * @param rightValue 右值
+     */
+    public LongZtream between(long leftValue, long rightValue) {
+        return filter(e -> e >= leftValue && e <= rightValue);
+    }
+
+    /**
+     * 分页
+     *
+     * @param no   页码
+     * @param size 页长
+     */
+    public LongZtream page(long no, long size) {
+        return skip((no - 1) * size).limit(size);
+    }
+
+    /**
+     * 平均值
+     *
+     * @param defaultValue 默认值
+     * @return 平均值
+     */
+    public double avg(double defaultValue) {
+        return stream.average().orElse(defaultValue);
+    }
+
+    /**
+     * 最值
+     *
+     * @return 最值，流为空时均为null
+     */
+    public Peak<Long> peak() {
+        LongSummaryStatistics statistics = stream.summaryStatistics();
+        if (statistics.getCount() == 0) {
+            return new Peak<>();
+        }
+        return new Peak<>(statistics.getMax(), statistics.getMin());
+    }
+
+    /**
+     * 分组
+     * 组内元素以long数组保存
+     *
+     * @param funK 分组依据
+     * @return 分组结果
+     */
+    public <K> Map<K, long[]> groupBy(LongFunction<? extends K> funK) {
+        Map<K, LongBuffer> map = stream.collect(HashMap::new,
+                (m, e) -> m.computeIfAbsent(funK.apply(e), k -> new LongBuffer()).add(e),
+                (m1, m2) -> m2.forEach((k, v) -> m1.merge(k, v, LongBuffer::addAll)));
+        Map<K, long[]> result = new HashMap<>(Math.max((int) (map.size() / .75f) + 1, 16));
+        map.forEach((k, v) -> result.put(k, v.toArray()));
+        return result;
+    }
+
+    /**
+     * 返回拼接后的字符串
+     *
+     * @return 拼接后的字符串
+     */
+    public String join() {
+        return join(",");
+    }
+
+    /**
+     * 返回拼接后的字符串
+     *
+     * @param delimiter 分隔符
+     * @return 拼接后的字符串
+     */
+    public String join(CharSequence delimiter) {
+        return stream.collect(() -> new StringJoiner(delimiter), (j, e) -> j.add(Long.toString(e)), StringJoiner::merge).toString();
+    }
+
+    /**
+     * 找到符合条件的第一个元素的下标
+     *
+     * @param predicate 判断函数
+     * @return int 下标，不存在时为-1
+     */
+    public int firstIdx(LongPredicate predicate) {
+        Spliterator.OfLong spliterator = stream.spliterator();
+        boolean[] hit = {false};
+        int index = 0;
+        while (spliterator.tryAdvance((long e) -> hit[0] = predicate.test(e))) {
+            if (hit[0]) {
+                return index;
+            }
+            index++;
+        }
+        return -1;
+    }
+
+    /**
+     * 收集为{@link ArrayList}
+     *
+     * @return ArrayList 集合
+     */
+    public List<Long> toList() {
+        return boxed().toList();
+    }
+
+    @Override
+    public LongZtream filter(LongPredicate predicate) {
+        return ztream(stream.filter(predicate));
+    }
+
+    @Override
+    public LongZtream map(LongUnaryOperator mapper) {
+        return ztream(stream.map(mapper));
+    }
+
+    @Override
+    public <U> Ztream<U> mapToObj(LongFunction<? extends U> mapper) {
+        return Ztream.of(stream.mapToObj(mapper));
+    }
+
+    @Override
+    public IntZtream mapToInt(LongToIntFunction mapper) {
+        return IntZtream.of(stream.mapToInt(mapper));
+    }
+
+    @Override
+    public DoubleZtream mapToDouble(LongToDoubleFunction mapper) {
+        return DoubleZtream.of(stream.mapToDouble(mapper));
+    }
+
+    @Override
+    public LongZtream flatMap(LongFunction<? extends LongStream> mapper) {
+        return ztream(stream.flatMap(mapper));
+    }
+
+    @Override
+    public LongZtream sorted() {
+        return ztream(stream.sorted());
+    }
+
+    @Override
+    public LongZtream peek(LongConsumer action) {
+        return ztream(stream.peek(action));
+    }
+
+    @Override
+    public LongZtream limit(long maxSize) {
+        return ztream(stream.limit(maxSize));
+    }
+
+    @Override
+    public LongZtream skip(long n) {
+        return ztream(stream.skip(n));
+    }
+
+    @Override
+    public void forEach(LongConsumer action) {
+        stream.forEach(action);
+    }
+
+    @Override
+    public void forEachOrdered(LongConsumer action) {
+        stream.forEachOrdered(action);
+    }
+
+    @Override
+    public long[] toArray() {
+        return stream.toArray();
+    }
+
+    @Override
+    public long reduce(long identity, LongBinaryOperator op) {
+        return stream.reduce(identity, op);
+    }
+
+    @Override
+    public OptionalLong reduce(LongBinaryOperator op) {
+        return stream.reduce(op);
+    }
+
+    @Override
+    public <R> R collect(Supplier<R> supplier, ObjLongConsumer<R> accumulator, BiConsumer<R, R> combiner) {
+        return stream.collect(supplier, accumulator, combiner);
+    }
+
+    @Override
+    public long sum() {
+        return stream.sum();
+    }
+
+    @Override
+    public OptionalLong min() {
+        return stream.min();
+    }
+
+    @Override
+    public OptionalLong max() {
+        return stream.max();
+    }
+
+    @Override
+    public long count() {
+        return stream.count();
+    }
+
+    @Override
+    public OptionalDouble average() {
+        return stream.average();
+    }
+
+    @Override
+    public LongSummaryStatistics summaryStatistics() {
+        return stream.summaryStatistics();
+    }
+
+    @Override
+    public boolean anyMatch(LongPredicate predicate) {
+        return stream.anyMatch(predicate);
+    }
+
+    @Override
+    public boolean allMatch(LongPredicate predicate) {
+        return stream.allMatch(predicate);
+    }
+
+    @Override
+    public boolean noneMatch(LongPredicate predicate) {
+        return stream.noneMatch(predicate);
+    }
+
+    @Override
+    public OptionalLong findFirst() {
+        return stream.findFirst();
+    }
+
+    @Override
+    public OptionalLong findAny() {
+        return stream.findAny();
+    }
+
+    @Override
+    public DoubleZtream asDoubleStream() {
+        return DoubleZtream.of(stream.asDoubleStream());
+    }
+
+    /**
+     * 装箱为对象流
+     *
+     * @return {@link Ztream}<{@link Integer}>
+     */
+    @Override
+    public Ztream<Long> boxed() {
+        return Ztream.of(stream.boxed());
+    }
+
+    @Override
+    public LongZtream sequential() {
+        return ztream(stream.sequential());
+    }
+
+    @Override
+    public LongZtream parallel() {
+        return ztream(stream.parallel());
+    }
+
+    @Override
+    public PrimitiveIterator.OfLong iterator() {
+        return stream.iterator();
+    }
+
+    @Override
+    public Spliterator.OfLong spliterator() {
+        return stream.spliterator();
+    }
+
+    @Override
+    public boolean isParallel() {
+        return stream.isParallel();
+    }
+
+    @Override
+    public LongZtream unordered() {
+        return ztream(stream.unordered());
+    }
+
+    @Override
+    public LongZtream onClose(Runnable closeHandler) {
+        return ztream(stream.onClose(closeHandler));
+    }
+
+    @Override
+    public void close() {
+        stream.close();
+    }
+
+    /**
+     * 可增长的long数组
+     */
+    private static class LongBuffer {
+        private long[] values = new long[8];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size << 1);
+            }
+            values[size++] = value;
+        }
+
+        LongBuffer addAll(LongBuffer other) {
+            if (size + other.size > values.length) {
+                values = Arrays.copyOf(values, Math.max(size + other.size, size << 1));
+            }
+            System.arraycopy(other.values, 0, values, size, other.size);
+            size += other.size;
+            return this;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
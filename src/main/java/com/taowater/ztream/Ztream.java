@@ -3,16 +3,14 @@ package com.taowater.ztream;
 import com.taowater.taol.core.convert.ConvertUtil;
 import com.taowater.taol.core.function.Function2;
 import com.taowater.taol.core.util.EmptyUtil;
-import com.taowater.ztream.assist.BreakException;
 import com.taowater.ztream.assist.Functions;
+import com.taowater.ztream.assist.Sources;
 import com.taowater.ztream.assist.Spliterators;
 import com.taowater.ztream.op.GroupBy;
 import com.taowater.ztream.op.ToMap;
 
 import java.util.*;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.*;
-import java.util.stream.IntStream;
 import java.util.stream.LongStream;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
@@ -26,8 +24,22 @@ import java.util.stream.StreamSupport;
 public final class Ztream<T> extends AbstractZtream<T, Ztream<T>> implements GroupBy<T>,
         ToMap<T> {
 
+    /**
+     * 由数据源元素得到当前元素的函数，仅在只经过map、peek时存在
+     */
+    private final Function<Object, T> fromSource;
+
     Ztream(Stream<T> stream) {
-        super(stream);
+        this(stream, null, null, null);
+    }
+
+    Ztream(Stream<T> stream, Object source) {
+        this(stream, source, source, Objects.isNull(source) ? null : e -> (T) e);
+    }
+
+    private Ztream(Stream<T> stream, Object source, Object sizeSource, Function<Object, T> fromSource) {
+        super(stream, source, sizeSource);
+        this.fromSource = fromSource;
     }
 
     @Override
@@ -37,7 +49,17 @@ public final class Ztream<T> extends AbstractZtream<T, Ztream<T>> implements Gro
 
     @Override
     public <R> Ztream<R> map(Function<? super T, ? extends R> mapper) {
-        return new Ztream<>(stream.map(mapper));
+        Function<Object, R> fun = Objects.isNull(fromSource) ? null : fromSource.andThen(mapper);
+        return new Ztream<>(stream.map(mapper), null, sizeSource, fun);
+    }
+
+    @Override
+    public Ztream<T> peek(Consumer<? super T> action) {
+        Function<Object, T> fun = Objects.isNull(fromSource) ? null : fromSource.andThen(e -> {
+            action.accept(e);
+            return e;
+        });
+        return new Ztream<>(stream.peek(action), null, sizeSource, fun);
     }
 
     /**
@@ -51,12 +73,23 @@ public final class Ztream<T> extends AbstractZtream<T, Ztream<T>> implements Gro
 
     /**
      * 带索引的元素映射
+     * 索引为元素的遇到顺序，并行时同样准确，超出int范围时抛出{@link ArithmeticException}
      *
      * @param mapper 映射器
      * @return {@link Ztream}<{@link R}>
      */
     public <R> Ztream<R> map(BiFunction<? super T, Integer, ? extends R> mapper) {
-        return new Ztream<>(stream.map(new Functions.IndexedFunction<>(mapper)));
+        return mapIndexed((e, i) -> mapper.apply(e, Math.toIntExact(i)));
+    }
+
+    /**
+     * 带long索引的元素映射
+     *
+     * @param mapper 映射器
+     * @return {@link Ztream}<{@link R}>
+     */
+    public <R> Ztream<R> mapIndexed(Functions.ObjLongFunction<? super T, ? extends R> mapper) {
+        return new Ztream<>(StreamSupport.stream(new Spliterators.IndexedSpliterator<T, R>(stream.spliterator(), mapper), isParallel()).onClose(stream::close));
     }
 
     @Override
@@ -86,7 +119,7 @@ public final class Ztream<T> extends AbstractZtream<T, Ztream<T>> implements Gro
     @SafeVarargs
     @SuppressWarnings("varargs")
     public static <T> Ztream<T> of(T... values) {
-        return EmptyUtil.isEmpty(values) ? empty() : of(Stream.of(values));
+        return EmptyUtil.isEmpty(values) ? empty() : new Ztream<>(Stream.of(values), values);
     }
 
     /**
@@ -107,7 +140,7 @@ public final class Ztream<T> extends AbstractZtream<T, Ztream<T>> implements Gro
      * @return {@link Ztream}<{@link T}>
      */
     public static <T> Ztream<T> of(Iterable<T> iterable, boolean parallel) {
-        return Any.of(iterable).map(Iterable::spliterator).map(spliterator -> StreamSupport.stream(spliterator, parallel)).map(Ztream::new).orElseGet(Ztream::empty);
+        return Any.of(iterable).map(Iterable::spliterator).map(spliterator -> new Ztream<>(StreamSupport.stream(spliterator, parallel), iterable)).orElseGet(Ztream::empty);
     }
 
     /**
@@ -174,16 +207,40 @@ public final class Ztream<T> extends AbstractZtream<T, Ztream<T>> implements Gro
      * @return {@link Ztream}<{@link T}>
      */
     public Ztream<T> peek(ObjIntConsumer<? super T> action) {
-        return peek(new Functions.IndexedConsumer<>(action));
+        return peekIndexed((e, i) -> action.accept(e, Math.toIntExact(i)));
     }
 
     /**
      * 遍历
      *
+     * @param action 当前元素及long下标
+     * @return {@link Ztream}<{@link T}>
+     */
+    public Ztream<T> peekIndexed(ObjLongConsumer<? super T> action) {
+        return mapIndexed((e, i) -> {
+            action.accept(e, i);
+            return e;
+        });
+    }
+
+    /**
+     * 遍历
+     * 下标为元素的遇到顺序，并行时同样准确，超出int范围时抛出{@link ArithmeticException}
+     *
      * @param action 当前元素及遍历下标
      */
     public void forEach(ObjIntConsumer<? super T> action) {
-        forEach(new Functions.IndexedConsumer<>(action));
+        forEachIndexed((e, i) -> action.accept(e, Math.toIntExact(i)));
+    }
+
+    /**
+     * 遍历
+     *
+     * @param action 当前元素及long下标
+     */
+    public void forEachIndexed(ObjLongConsumer<? super T> action) {
+        peekIndexed(action).forEach(e -> {
+        });
     }
 
     /**
@@ -279,19 +336,85 @@ public final class Ztream<T> extends AbstractZtream<T, Ztream<T>> implements Gro
      *
      * @param predicate 判断函数
      * @return int 下标
+     * @see #indexOf(Predicate)
      */
     public int firstIdx(Predicate<T> predicate) {
-        AtomicInteger index = new AtomicInteger(-1);
-        try {
-            this.forEach((e, i) -> {
-                if (predicate.test(e)) {
-                    index.set(i);
-                    throw new BreakException();
-                }
-            });
-        } catch (BreakException ignore) {
+        return indexOf(predicate);
+    }
+
+    /**
+     * 找到符合条件的第一个元素的下标，找到即停止
+     * 并行时返回遇到顺序中最小的下标
+     *
+     * @param predicate 判断函数
+     * @return int 下标，不存在时为-1
+     */
+    public int indexOf(Predicate<? super T> predicate) {
+        if (isParallel()) {
+            return Math.toIntExact(matchedIndices(predicate).findFirst().orElse(-1));
+        }
+        Spliterator<T> spliterator = spliterator();
+        Object[] holder = new Object[1];
+        Consumer<T> action = e -> holder[0] = e;
+        int index = 0;
+        while (spliterator.tryAdvance(action)) {
+            if (predicate.test((T) holder[0])) {
+                return index;
+            }
+            index++;
+        }
+        return -1;
+    }
+
+    /**
+     * 找到符合条件的最后一个元素的下标
+     * 数据源为可随机访问的列表或数组时从后向前查找，找到即停止
+     *
+     * @param predicate 判断函数
+     * @return int 下标，不存在时为-1
+     */
+    public int lastIndexOf(Predicate<? super T> predicate) {
+        IntFunction<T> getter = null;
+        int size = 0;
+        if (source instanceof List && source instanceof RandomAccess) {
+            List<T> list = (List<T>) source;
+            getter = list::get;
+            size = list.size();
+        } else if (source instanceof Object[]) {
+            T[] array = (T[]) source;
+            getter = i -> array[i];
+            size = array.length;
         }
-        return index.get();
+        if (Objects.isNull(getter)) {
+            return Math.toIntExact(matchedIndices(predicate).reduce((a, b) -> b).orElse(-1));
+        }
+        // 占用原流，保持流只能消费一次的语义
+        spliterator();
+        for (int i = size - 1; i >= 0; i--) {
+            if (predicate.test(getter.apply(i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 找到符合条件的所有元素的下标
+     *
+     * @param predicate 判断函数
+     * @return int[] 按遇到顺序排列的下标
+     */
+    public int[] indicesOf(Predicate<? super T> predicate) {
+        return matchedIndices(predicate).mapToInt(Math::toIntExact).toArray();
+    }
+
+    /**
+     * 符合条件的元素下标组成的流，下标为元素的遇到顺序
+     */
+    private LongStream matchedIndices(Predicate<? super T> predicate) {
+        boolean parallel = isParallel();
+        Spliterators.IndexedSpliterator<T, Long> indexed = new Spliterators.IndexedSpliterator<>(spliterator(), (e, i) -> predicate.test(e) ? i : -1L);
+        return StreamSupport.stream(indexed, parallel).mapToLong(Long::longValue).filter(i -> i >= 0);
     }
 
     /**
@@ -319,7 +442,70 @@ public final class Ztream<T> extends AbstractZtream<T, Ztream<T>> implements Gro
      * @param size 页长
      */
     public Ztream<T> page(long no, long size) {
-        return skip((no - 1) * size).limit(size);
+        if (no < 1 || size < 0) {
+            throw new IllegalArgumentException("no: " + no + ", size: " + size);
+        }
+        long from;
+        try {
+            from = Math.multiplyExact(no - 1, size);
+        } catch (ArithmeticException e) {
+            // 超出long范围的页必然在末尾之后
+            from = Long.MAX_VALUE;
+        }
+        return slice(from, from > Long.MAX_VALUE - size ? Long.MAX_VALUE : from + size);
+    }
+
+    @Override
+    public Ztream<T> skip(long n) {
+        return slice(n, Long.MAX_VALUE);
+    }
+
+    @Override
+    public Ztream<T> limit(long maxSize) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException(Long.toString(maxSize));
+        }
+        return slice(0, maxSize);
+    }
+
+    /**
+     * 截取[from, to)范围的元素
+     * 数据源为数组、集合且之前只有map、peek时直接定位到起始位置，不遍历被跳过的元素
+     *
+     * @param from 起始下标（含）
+     * @param to   结束下标（不含）
+     * @return {@link Ztream}<{@link T}>
+     */
+    public Ztream<T> slice(long from, long to) {
+        if (from < 0 || to < from) {
+            throw new IllegalArgumentException("from: " + from + ", to: " + to);
+        }
+        Object data = sizeSource;
+        if (Objects.isNull(fromSource) || Sources.size(data) < 0) {
+            Stream<T> result = stream.skip(from);
+            return ztream(to == Long.MAX_VALUE ? result : result.limit(to - from));
+        }
+        boolean parallel = isParallel();
+        // 占用原流，保持流只能消费一次的语义
+        spliterator();
+        List<Object> view = Sources.subList(data, from, to);
+        // 与集合的流一样延迟绑定，在终端操作时才按数据源当前的元素个数截取
+        Supplier<Spliterator<Object>> sliced = () -> {
+            long size = Sources.size(data);
+            int lo = (int) Math.min(from, size);
+            int hi = (int) Math.min(to, size);
+            Spliterator<Object> spliterator = Sources.spliterator(data, lo, hi);
+            if (Objects.nonNull(spliterator)) {
+                return spliterator;
+            }
+            return StreamSupport.stream(((Collection<Object>) data).spliterator(), false).skip(lo).limit(hi - lo).spliterator();
+        };
+        int characteristics = Objects.nonNull(view) ? Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.ORDERED : Spliterator.ORDERED;
+        Stream<Object> result = StreamSupport.stream(sliced, characteristics, parallel).onClose(this::close);
+        if (Objects.nonNull(source)) {
+            return new Ztream<>((Stream<T>) result, view, view, fromSource);
+        }
+        return new Ztream<>(result.map(fromSource), null, view, fromSource);
     }
 
     /**
@@ -327,9 +513,9 @@ public final class Ztream<T> extends AbstractZtream<T, Ztream<T>> implements Gro
      *
      * @param start 开始
      * @param end   结束
-     *
+     * @return {@link IntZtream}，需要对象流时调用{@link IntZtream#boxed()}
      */
-    public static Ztream<Integer> range(int start, int end) {
+    public static IntZtream range(int start, int end) {
         return Ztream.range(start, end, false);
     }
 
@@ -339,11 +525,10 @@ public final class Ztream<T> extends AbstractZtream<T, Ztream<T>> implements Gro
      * @param start  开始
      * @param end    结束
      * @param closed 是否包含尾数
-     *
+     * @return {@link IntZtream}，需要对象流时调用{@link IntZtream#boxed()}
      */
-    public static Ztream<Integer> range(int start, int end, boolean closed) {
-        BiFunction<Integer, Integer, IntStream> fun = closed ? IntStream::rangeClosed : IntStream::range;
-        return Ztream.of(fun.apply(start, end).boxed());
+    public static IntZtream range(int start, int end, boolean closed) {
+        return IntZtream.range(start, end, closed);
     }
 
     /**
@@ -351,9 +536,9 @@ public final class Ztream<T> extends AbstractZtream<T, Ztream<T>> implements Gro
      *
      * @param start 开始
      * @param end   结束
-     *
+     * @return {@link LongZtream}，需要对象流时调用{@link LongZtream#boxed()}
      */
-    public static Ztream<Long> range(long start, long end) {
+    public static LongZtream range(long start, long end) {
         return Ztream.range(start, end, false);
     }
 
@@ -363,10 +548,9 @@ public final class Ztream<T> extends AbstractZtream<T, Ztream<T>> implements Gro
      * @param start  开始
      * @param end    结束
      * @param closed 是否包含尾数
-     *
+     * @return {@link LongZtream}，需要对象流时调用{@link LongZtream#boxed()}
      */
-    public static Ztream<Long> range(long start, long end, boolean closed) {
-        BiFunction<Long, Long, LongStream> fun = closed ? LongStream::rangeClosed : LongStream::range;
-        return Ztream.of(fun.apply(start, end).boxed());
+    public static LongZtream range(long start, long end, boolean closed) {
+        return LongZtream.range(start, end, closed);
     }
 }
@@ -0,0 +1,118 @@
+package com.taowater.ztream.assist;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 布隆过滤器
+ * 位数组基于{@link AtomicLongArray}，可并发添加，int/long键直接按数值散列
+ *
+ * @author zhu56
+ */
+public class BloomFilter {
+
+    /**
+     * 派生第二个散列的种子
+     */
+    private static final long SEED = 0x9e3779b97f4a7c15L;
+
+    private final AtomicLongArray bits;
+    private final long bitSize;
+    private final int hashCount;
+
+    /**
+     * @param expectedSize 预计元素个数
+     * @param fpp          期望误判率
+     */
+    public BloomFilter(long expectedSize, double fpp) {
+        if (expectedSize <= 0) {
+            throw new IllegalArgumentException("expectedSize must be positive: " + expectedSize);
+        }
+        if (fpp <= 0 || fpp >= 1) {
+            throw new IllegalArgumentException("fpp must be in (0, 1): " + fpp);
+        }
+        long m = (long) (-expectedSize * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (m + 63) >>> 6));
+        this.bits = new AtomicLongArray(words);
+        this.bitSize = (long) words << 6;
+        this.hashCount = Math.max(1, (int) Math.round((double) m / expectedSize * Math.log(2)));
+    }
+
+    /**
+     * 添加键
+     *
+     * @param key 键
+     * @return 是否可能已存在，为false时一定不存在
+     */
+    public boolean put(Object key) {
+        long h1 = hash(key);
+        long h2 = mix(h1 ^ SEED);
+        boolean exist = true;
+        for (int i = 0; i < hashCount; i++) {
+            exist &= set(index(h1, h2, i, bitSize));
+        }
+        return exist;
+    }
+
+    /**
+     * 键是否可能存在
+     *
+     * @param key 键
+     * @return 为false时一定不存在
+     */
+    public boolean mightContain(Object key) {
+        long h1 = hash(key);
+        long h2 = mix(h1 ^ SEED);
+        for (int i = 0; i < hashCount; i++) {
+            long index = index(h1, h2, i, bitSize);
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 置位
+     *
+     * @return 该位原本是否已置位
+     */
+    private boolean set(long index) {
+        int word = (int) (index >>> 6);
+        long mask = 1L << index;
+        long old;
+        do {
+            old = bits.get(word);
+            if ((old & mask) != 0) {
+                return true;
+            }
+        } while (!bits.compareAndSet(word, old, old | mask));
+        return false;
+    }
+
+    /**
+     * 第i个散列位置，两个64位散列组合后在long上取模，位数超过2^31时仍能覆盖全部位
+     */
+    static long index(long h1, long h2, int i, long bitSize) {
+        return ((h1 + i * h2) & Long.MAX_VALUE) % bitSize;
+    }
+
+    private static long hash(Object key) {
+        if (key instanceof Long || key instanceof Integer) {
+            return mix(((Number) key).longValue());
+        }
+        return mix(Objects.hashCode(key));
+    }
+
+    /**
+     * murmur3 64位混淆
+     */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb3f97f4a7e63L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -4,18 +4,29 @@ package com.taowater.ztream.assist;
 import com.taowater.taol.core.function.Function1;
 import com.taowater.taol.core.util.NumberUtil;
 import com.taowater.ztream.Any;
-import com.taowater.ztream.Ztream;
+import com.taowater.ztream.op.math.AvgAccumulator;
+import com.taowater.ztream.op.math.HyperLogLog;
+import com.taowater.ztream.op.math.KllSketch;
 import com.taowater.ztream.op.math.Peak;
+import com.taowater.ztream.op.math.QuantileBuffer;
+import com.taowater.ztream.op.math.SumAccumulator;
+import com.taowater.ztream.op.math.Summary;
+import com.taowater.ztream.op.sort.BoundedHeap;
 import com.taowater.ztream.op.sort.Sorter;
 import lombok.experimental.UtilityClass;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.function.BiConsumer;
 import java.util.function.BinaryOperator;
 import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
 import java.util.stream.Collector;
 
 /**
@@ -27,6 +38,13 @@ import java.util.stream.Collector;
 @SuppressWarnings("unchecked")
 public class ExCollectors {
 
+    /**
+     * 并发分组中代替null的键
+     */
+    private static final Object NULL_KEY = new Object();
+
+    private static final Set<Collector.Characteristics> CH_CONCURRENT_UNORDERED = Collections.unmodifiableSet(EnumSet.of(Collector.Characteristics.CONCURRENT, Collector.Characteristics.UNORDERED));
+
     /**
      * 收集器实现
      * Collectors.CollectorImpl 不给我用我不会抄一个过来吗
@@ -84,34 +102,139 @@ public class ExCollectors {
         }
     }
 
+    /**
+     * 累加收集器
+     * 元素及属性值为null时跳过，结果类型与属性类型一致
+     *
+     * @param fun 属性
+     * @return 和，无可累加的值时为null
+     */
+    public static <T, N extends Number> CollectorImpl<T, SumAccumulator, N> sum(Function1<? super T, ? extends N> fun) {
+        return new CollectorImpl<>(
+                SumAccumulator::new,
+                (acc, t) -> {
+                    if (Objects.nonNull(t)) {
+                        acc.add(fun.apply(t));
+                    }
+                },
+                SumAccumulator::merge,
+                acc -> acc.isEmpty() ? null : NumberUtil.getValue(acc.toBigDecimal(), fun),
+                Collections.emptySet()
+        );
+    }
+
     /**
      * 平均值收集器
+     * 单次遍历累加和与个数，结果保留4位小数（四舍五入）后转为属性类型
      *
      * @param fun       属性
      * @param nullCount null是否计数
-     * @return {@link CollectorImpl }<{@link T }, {@link List }<{@link T }>, {@link N }>
+     * @return {@link CollectorImpl }<{@link T }, {@link AvgAccumulator }, {@link N }>
      */
-    public static <T, N extends Number> CollectorImpl<T, List<T>, N> avg(Function1<? super T, N> fun, boolean nullCount) {
+    public static <T, N extends Number> CollectorImpl<T, AvgAccumulator, N> avg(Function1<? super T, N> fun, boolean nullCount) {
         return new CollectorImpl<>(
-                ArrayList::new,
-                List::add,
-                (l1, l2) -> {
-                    l1.addAll(l2);
-                    return l1;
+                AvgAccumulator::new,
+                (acc, t) -> {
+                    N value = Objects.isNull(t) ? null : fun.apply(t);
+                    if (nullCount || Objects.nonNull(value)) {
+                        acc.count();
+                    }
+                    acc.add(value);
                 },
-                list -> {
-                    N sum = Ztream.of(list).sum(fun);
-                    long count = nullCount ? Ztream.of(list).count() : Ztream.of(list).nonNull().map(fun).nonNull().count();
-                    if (Objects.isNull(sum) || count == 0) {
-                        return null;
+                AvgAccumulator::merge,
+                acc -> {
+                    BigDecimal avgValue = acc.avg(4, RoundingMode.HALF_UP);
+                    return Objects.isNull(avgValue) ? null : NumberUtil.getValue(avgValue, fun);
+                },
+                Collections.emptySet()
+        );
+    }
+
+    /**
+     * int属性平均值收集器
+     * 以long累加，溢出时才转为BigDecimal
+     *
+     * @param fun       属性
+     * @param nullCount null是否计数
+     * @return 平均值，无可累加的值时为null
+     */
+    public static <T> CollectorImpl<T, AvgAccumulator, Double> avgInt(Function<? super T, ? extends Integer> fun, boolean nullCount) {
+        return avgLong(fun, nullCount);
+    }
+
+    /**
+     * long属性平均值收集器
+     * 以long累加，溢出时才转为BigDecimal
+     *
+     * @param fun       属性
+     * @param nullCount null是否计数
+     * @return 平均值，无可累加的值时为null
+     */
+    public static <T> CollectorImpl<T, AvgAccumulator, Double> avgLong(Function<? super T, ? extends Number> fun, boolean nullCount) {
+        return new CollectorImpl<>(
+                AvgAccumulator::new,
+                (acc, t) -> {
+                    Number value = Objects.isNull(t) ? null : fun.apply(t);
+                    if (Objects.nonNull(value)) {
+                        acc.add(value.longValue());
+                    }
+                    if (nullCount || Objects.nonNull(value)) {
+                        acc.count();
+                    }
+                },
+                AvgAccumulator::merge,
+                acc -> acc.isEmpty() ? null : acc.doubleValue() / acc.getCount(),
+                Collections.emptySet()
+        );
+    }
+
+    /**
+     * double属性平均值收集器
+     * 以Kahan补偿求和累加，不经过BigDecimal
+     *
+     * @param fun       属性
+     * @param nullCount null是否计数
+     * @return 平均值，无可累加的值时为null
+     */
+    public static <T> CollectorImpl<T, double[], Double> avgDouble(Function<? super T, ? extends Number> fun, boolean nullCount) {
+        // 0:和 1:补偿值 2:个数 3:非空值个数
+        return new CollectorImpl<>(
+                () -> new double[4],
+                (a, t) -> {
+                    Number value = Objects.isNull(t) ? null : fun.apply(t);
+                    if (Objects.nonNull(value)) {
+                        kahan(a, value.doubleValue());
+                        a[3]++;
+                    }
+                    if (nullCount || Objects.nonNull(value)) {
+                        a[2]++;
                     }
-                    BigDecimal avgValue = NumberUtil.toBigDecimal(sum).divide(BigDecimal.valueOf(count), 4, RoundingMode.HALF_UP);
-                    return NumberUtil.getValue(avgValue, fun);
                 },
+                (a, b) -> {
+                    kahan(a, b[0]);
+                    kahan(a, -b[1]);
+                    a[2] += b[2];
+                    a[3] += b[3];
+                    return a;
+                },
+                a -> a[3] == 0 ? null : (a[0] - a[1]) / a[2],
                 Collections.emptySet()
         );
     }
 
+    /**
+     * Kahan补偿求和
+     *
+     * @param a     0:和 1:补偿值
+     * @param value 值
+     */
+    private static void kahan(double[] a, double value) {
+        double y = value - a[1];
+        double t = a[0] + y;
+        a[1] = (t - a[0]) - y;
+        a[0] = t;
+    }
+
     /**
      * 最值收集器
      *
@@ -245,6 +368,346 @@ public class ExCollectors {
         }
     }
 
+    /**
+     * 并发分组
+     * 各线程直接写入同一个{@link ConcurrentHashMap}，声明CONCURRENT与UNORDERED，并行时无需合并各线程的分组结果；
+     * 下游非线程安全时按组加锁。{@link ConcurrentHashMap}不允许null键，内部以哨兵键代替，结束时再还原到mapFactory提供的map中
+     *
+     * @return {@link Collector}<{@link T}, {@link ?}, {@link M}>
+     * @see ExCollectors#groupingBy(Function, Supplier, Collector)
+     */
+    public static <T, K, D, A, M extends Map<K, D>>
+    Collector<T, ?, M> groupingByConcurrent(Function<? super T, ? extends K> classifier,
+                                            Supplier<M> mapFactory,
+                                            Collector<? super T, A, D> downstream) {
+        Supplier<A> downstreamSupplier = downstream.supplier();
+        BiConsumer<A, ? super T> downstreamAccumulator = downstream.accumulator();
+        boolean concurrent = downstream.characteristics().contains(Collector.Characteristics.CONCURRENT);
+        BiConsumer<ConcurrentMap<Object, A>, T> accumulator = (m, t) -> {
+            Object key = null;
+            if (Objects.nonNull(t)) {
+                key = classifier.apply(t);
+            }
+            A container = m.computeIfAbsent(Objects.isNull(key) ? NULL_KEY : key, k -> downstreamSupplier.get());
+            if (concurrent) {
+                downstreamAccumulator.accept(container, t);
+            } else {
+                synchronized (container) {
+                    downstreamAccumulator.accept(container, t);
+                }
+            }
+        };
+        BinaryOperator<ConcurrentMap<Object, A>> merger = ExCollectors.mapMerger(downstream.combiner());
+        Function<A, D> downstreamFinisher = downstream.finisher();
+        Function<ConcurrentMap<Object, A>, M> finisher = intermediate -> {
+            M result = mapFactory.get();
+            intermediate.forEach((k, v) -> result.put(k == NULL_KEY ? null : (K) k, downstreamFinisher.apply(v)));
+            return result;
+        };
+        return new CollectorImpl<>(ConcurrentHashMap::new, accumulator, merger, finisher, CH_CONCURRENT_UNORDERED);
+    }
+
+    /**
+     * 多层分组
+     * 单次遍历逐层定位到叶子组并交给下游累加，并行时逐层合并各线程结果
+     *
+     * @param classifiers 各层分组依据，由外到内
+     * @param downstream  叶子组的下游
+     * @return {@link Collector}<{@link T}, {@link ?}, {@link Map}>
+     */
+    public static <T, A, D> Collector<T, ?, Map<Object, Object>> groupingMultilayer(List<? extends Function<? super T, ?>> classifiers,
+                                                                                 Collector<? super T, A, D> downstream) {
+        int depth = classifiers.size();
+        if (depth == 0) {
+            throw new IllegalArgumentException("至少需要一个分组依据");
+        }
+        Supplier<A> downstreamSupplier = downstream.supplier();
+        BiConsumer<A, ? super T> downstreamAccumulator = downstream.accumulator();
+        BinaryOperator<A> downstreamCombiner = downstream.combiner();
+        BiConsumer<Map<Object, Object>, T> accumulator = (root, t) -> {
+            Map<Object, Object> m = root;
+            for (int level = 0; level < depth; level++) {
+                Object key = null;
+                if (Objects.nonNull(t)) {
+                    key = classifiers.get(level).apply(t);
+                }
+                int next = level + 1;
+                Object child = m.computeIfAbsent(key, k -> next < depth ? new HashMap<>() : downstreamSupplier.get());
+                if (next < depth) {
+                    m = (Map<Object, Object>) child;
+                } else {
+                    downstreamAccumulator.accept((A) child, t);
+                }
+            }
+        };
+        BinaryOperator<Map<Object, Object>> merger = (m1, m2) -> mergeMultilayer(m1, m2, depth, downstreamCombiner);
+        if (downstream.characteristics().contains(Collector.Characteristics.IDENTITY_FINISH)) {
+            return new CollectorImpl<>(HashMap::new, accumulator, merger, Collections.emptySet());
+        }
+        Function<A, D> downstreamFinisher = downstream.finisher();
+        Function<Map<Object, Object>, Map<Object, Object>> finisher = root -> {
+            finishMultilayer(root, depth, downstreamFinisher);
+            return root;
+        };
+        return new CollectorImpl<>(HashMap::new, accumulator, merger, finisher, Collections.emptySet());
+    }
+
+    /**
+     * 逐层合并多层分组结果
+     */
+    private static <A> Map<Object, Object> mergeMultilayer(Map<Object, Object> m1, Map<Object, Object> m2, int depth, BinaryOperator<A> combiner) {
+        for (Map.Entry<Object, Object> e : m2.entrySet()) {
+            m1.merge(e.getKey(), e.getValue(), (v1, v2) -> depth > 1
+                    ? mergeMultilayer((Map<Object, Object>) v1, (Map<Object, Object>) v2, depth - 1, combiner)
+                    : combiner.apply((A) v1, (A) v2));
+        }
+        return m1;
+    }
+
+    /**
+     * 逐层对叶子组执行下游的结束操作
+     */
+    private static <A, D> void finishMultilayer(Map<Object, Object> map, int depth, Function<A, D> finisher) {
+        if (depth > 1) {
+            map.values().forEach(v -> finishMultilayer((Map<Object, Object>) v, depth - 1, finisher));
+        } else {
+            map.replaceAll((k, v) -> finisher.apply((A) v));
+        }
+    }
+
+    /**
+     * 按键去重收集器，结果保持元素出现的顺序，并行时按顺序合并
+     *
+     * @param fun      键
+     * @param keepLast 是否保留最后一个，为true时按最后一次出现的位置排列
+     * @return 去重后的元素
+     */
+    public static <T> Collector<T, ?, Collection<T>> distinct(Function<? super T, ?> fun, boolean keepLast) {
+        BiConsumer<LinkedHashMap<Object, T>, T> put = keepLast
+                ? (m, t) -> {
+            Object key = Objects.isNull(t) ? null : fun.apply(t);
+            m.remove(key);
+            m.put(key, t);
+        }
+                : (m, t) -> {
+            Object key = Objects.isNull(t) ? null : fun.apply(t);
+            if (!m.containsKey(key)) {
+                m.put(key, t);
+            }
+        };
+        return new CollectorImpl<>(
+                LinkedHashMap::new,
+                put,
+                (m1, m2) -> {
+                    m2.forEach((k, v) -> {
+                        if (keepLast) {
+                            m1.remove(k);
+                            m1.put(k, v);
+                        } else if (!m1.containsKey(k)) {
+                            m1.put(k, v);
+                        }
+                    });
+                    return m1;
+                },
+                LinkedHashMap::values,
+                Collections.emptySet()
+        );
+    }
+
+    /**
+     * 蓄水池抽样收集器，一次遍历等概率抽取至多k个元素，结果顺序不保证
+     *
+     * @param k      抽取个数
+     * @param random 随机数生成器，为null时使用各线程的{@link java.util.concurrent.ThreadLocalRandom}
+     * @return 样本
+     */
+    public static <T> Collector<T, ?, List<T>> sample(int k, Random random) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must not be negative: " + k);
+        }
+        return new CollectorImpl<T, Randoms.Reservoir<T>, List<T>>(
+                () -> new Randoms.Reservoir<>(k, random),
+                Randoms.Reservoir::add,
+                Randoms.Reservoir::merge,
+                Randoms.Reservoir::toList,
+                Collections.emptySet()
+        );
+    }
+
+    /**
+     * 有界堆收集器，取排序后最前（或最后）的k个元素，按排序顺序输出
+     *
+     * @param k          个数
+     * @param comparator 比较器
+     * @param last       是否取最后k个
+     * @return 元素
+     */
+    public static <T> Collector<T, ?, List<T>> top(int k, Comparator<? super T> comparator, boolean last) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must not be negative: " + k);
+        }
+        return new CollectorImpl<T, BoundedHeap<T>, List<T>>(
+                () -> new BoundedHeap<>(k, comparator, last),
+                BoundedHeap::add,
+                BoundedHeap::merge,
+                BoundedHeap::toList,
+                Collections.emptySet()
+        );
+    }
+
+    /**
+     * HyperLogLog基数估计收集器，属性值为null时跳过
+     *
+     * @param fun       属性
+     * @param precision 精度，寄存器个数为2^precision
+     * @return 估计器，可继续合并或序列化
+     */
+    public static <T> Collector<T, ?, HyperLogLog> hll(Function<? super T, ?> fun, int precision) {
+        return new CollectorImpl<T, HyperLogLog, HyperLogLog>(
+                () -> new HyperLogLog(precision),
+                (hll, t) -> {
+                    if (Objects.nonNull(t)) {
+                        hll.add(fun.apply(t));
+                    }
+                },
+                HyperLogLog::merge,
+                Collections.emptySet()
+        );
+    }
+
+    /**
+     * long属性的HyperLogLog基数估计收集器，不装箱
+     *
+     * @param fun       属性
+     * @param precision 精度，寄存器个数为2^precision
+     * @return 估计器，可继续合并或序列化
+     */
+    public static <T> Collector<T, ?, HyperLogLog> hllLong(ToLongFunction<? super T> fun, int precision) {
+        return new CollectorImpl<T, HyperLogLog, HyperLogLog>(
+                () -> new HyperLogLog(precision),
+                (hll, t) -> hll.addLong(fun.applyAsLong(t)),
+                HyperLogLog::merge,
+                Collections.emptySet()
+        );
+    }
+
+    /**
+     * 精确分位数收集器
+     * 缓存全部值后快速选择，不整体排序，相邻两值之间线性插值
+     *
+     * @param fun       属性
+     * @param nullCount null是否计数，计数时视为0
+     * @param ps        分位点，取值[0, 1]
+     * @return 各分位点对应的值，无值时为null
+     */
+    public static <T> Collector<T, ?, double[]> percentiles(Function<? super T, ? extends Number> fun, boolean nullCount, double... ps) {
+        return new CollectorImpl<T, QuantileBuffer, double[]>(
+                QuantileBuffer::new,
+                (buffer, t) -> {
+                    Number value = Objects.isNull(t) ? null : fun.apply(t);
+                    if (Objects.nonNull(value)) {
+                        buffer.add(value.doubleValue());
+                    } else if (nullCount) {
+                        buffer.add(0);
+                    }
+                },
+                QuantileBuffer::merge,
+                buffer -> buffer.quantiles(ps),
+                Collections.emptySet()
+        );
+    }
+
+    /**
+     * KLL分位数草图收集器，内存有界，可合并
+     *
+     * @param fun       属性
+     * @param k         精度参数，越大越精确
+     * @param nullCount null是否计数，计数时视为0
+     * @return 草图
+     */
+    public static <T> Collector<T, ?, KllSketch> kll(Function<? super T, ? extends Number> fun, int k, boolean nullCount) {
+        return new CollectorImpl<T, KllSketch, KllSketch>(
+                () -> new KllSketch(k),
+                (sketch, t) -> {
+                    Number value = Objects.isNull(t) ? null : fun.apply(t);
+                    if (Objects.nonNull(value)) {
+                        sketch.add(value.doubleValue());
+                    } else if (nullCount) {
+                        sketch.add(0);
+                    }
+                },
+                KllSketch::merge,
+                Collections.emptySet()
+        );
+    }
+
+    /**
+     * 汇总统计收集器，单次遍历，可用作分组的下游收集器
+     *
+     * @param fun 属性，元素或属性值为null时计入null个数
+     * @return {@link Summary }
+     */
+    public static <T> Collector<T, ?, Summary> summary(Function<? super T, ? extends Number> fun) {
+        return new CollectorImpl<T, Summary, Summary>(
+                Summary::new,
+                (summary, t) -> summary.add(Objects.isNull(t) ? null : fun.apply(t)),
+                Summary::merge,
+                Collections.emptySet()
+        );
+    }
+
+    /**
+     * int属性汇总统计收集器，不装箱，和与最值按整数累计
+     *
+     * @param fun 属性，元素为null时计入null个数
+     * @return {@link Summary }
+     */
+    public static <T> Collector<T, ?, Summary> summaryInt(ToIntFunction<? super T> fun) {
+        return summaryLong(fun::applyAsInt);
+    }
+
+    /**
+     * long属性汇总统计收集器，不装箱，和与最值按整数累计，和溢出long时转为BigDecimal
+     *
+     * @param fun 属性，元素为null时计入null个数
+     * @return {@link Summary }
+     */
+    public static <T> Collector<T, ?, Summary> summaryLong(ToLongFunction<? super T> fun) {
+        return new CollectorImpl<T, Summary, Summary>(
+                Summary::new,
+                (summary, t) -> {
+                    if (Objects.isNull(t)) {
+                        summary.addNull();
+                    } else {
+                        summary.add(fun.applyAsLong(t));
+                    }
+                },
+                Summary::merge,
+                Collections.emptySet()
+        );
+    }
+
+    /**
+     * double属性汇总统计收集器，不装箱
+     *
+     * @param fun 属性，元素为null时计入null个数
+     * @return {@link Summary }
+     */
+    public static <T> Collector<T, ?, Summary> summaryDouble(ToDoubleFunction<? super T> fun) {
+        return new CollectorImpl<T, Summary, Summary>(
+                Summary::new,
+                (summary, t) -> {
+                    if (Objects.isNull(t)) {
+                        summary.addNull();
+                    } else {
+                        summary.add(fun.applyAsDouble(t));
+                    }
+                },
+                Summary::merge,
+                Collections.emptySet()
+        );
+    }
+
     public static <T, U, A, R>
     Collector<T, ?, R> mapping(Function<? super T, ? extends U> mapper,
                                Collector<? super U, A, R> downstream) {
@@ -1,16 +1,11 @@
 package com.taowater.ztream.assist;
 
-import com.taowater.ztream.Any;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.UtilityClass;
 
-import java.lang.invoke.MethodHandle;
-import java.lang.invoke.MethodHandles;
 import java.util.AbstractMap.SimpleImmutableEntry;
-import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.*;
 
@@ -22,14 +17,23 @@ import java.util.function.*;
 @UtilityClass
 public class Functions {
 
-    private final static Map<Class<?>, Predicate<?>> CACHE = new ConcurrentHashMap<>();
+    /**
+     * 接收一个对象和一个long值的函数
+     */
+    @FunctionalInterface
+    public interface ObjLongFunction<T, R> {
+        R apply(T t, long value);
+    }
 
     /**
      * 索引消费者
+     * 下标按到达顺序分配，并行时与遇到顺序不一致
      *
      * @author zhu56
      * @version 1.0
+     * @deprecated 使用{@link Spliterators.IndexedSpliterator}
      */
+    @Deprecated
     @RequiredArgsConstructor
     public static class IndexedConsumer<T> implements Consumer<T> {
         private final AtomicInteger index = new AtomicInteger(0);
@@ -59,10 +63,13 @@ public class Functions {
 
     /**
      * 索引功能
+     * 下标按到达顺序分配，并行时与遇到顺序不一致
      *
      * @author zhu56
      * @version 1.0
+     * @deprecated 使用{@link Spliterators.IndexedSpliterator}
      */
+    @Deprecated
     @RequiredArgsConstructor
     public static class IndexedFunction<T, R> implements Function<T, R> {
         private final AtomicInteger index = new AtomicInteger(0);
@@ -77,33 +84,12 @@ public class Functions {
 
 
     /**
-     * 将一个判断函数包装为空安全的判断函数
-     * 注意缓存内存消耗
+     * 将一个判断函数包装为空安全的判断函数，元素为null时不通过
      *
      * @param predicate 谓语
      */
-    @SuppressWarnings("unchecked")
     public static <T> Predicate<? super T> safe(Predicate<? super T> predicate) {
-        return (Predicate<? super T>) CACHE.computeIfAbsent(predicate.getClass(), k -> {
-            try {
-                MethodHandle mh = MethodHandles.lookup().unreflect(predicate.getClass()
-                                .getMethod("test", Object.class))
-                        .bindTo(predicate);
-                return t -> {
-                    if (t == null) {
-                        return false;
-                    }
-                    try {
-                        Boolean result = (Boolean) mh.invoke(t);
-                        return Any.of(result).orElse(false);
-                    } catch (Throwable e) {
-                        throw new RuntimeException(e);
-                    }
-                };
-            } catch (Exception e) {
-                return predicate;
-            }
-        });
+        return t -> Objects.nonNull(t) && predicate.test(t);
     }
 
     /**
@@ -0,0 +1,299 @@
+package com.taowater.ztream.assist;
+
+import lombok.experimental.UtilityClass;
+
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 基本类型集合及以其为基础的键集合
+ * 开放寻址、线性探测，元素不装箱
+ *
+ * @author zhu56
+ */
+@UtilityClass
+public class PrimitiveSets {
+
+    /**
+     * 最小容量
+     */
+    private static final int MIN_CAPACITY = 16;
+
+    /**
+     * 计算能容纳指定元素数量的容量，保持装载因子不超过0.5
+     */
+    private static int capacity(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < expectedSize * 2 && capacity < (1 << 30)) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static int mix(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static int mix(long h) {
+        return mix((int) (h ^ (h >>> 32)));
+    }
+
+    /**
+     * int集合
+     * 以0作为空槽位，0本身单独记录
+     */
+    public static class IntSet {
+        private int[] table;
+        private int mask;
+        private int size;
+        private boolean hasZero;
+
+        public IntSet() {
+            this(MIN_CAPACITY / 2);
+        }
+
+        public IntSet(int expectedSize) {
+            table = new int[capacity(expectedSize)];
+            mask = table.length - 1;
+        }
+
+        public static IntSet of(int... values) {
+            IntSet set = new IntSet(values.length);
+            for (int value : values) {
+                set.add(value);
+            }
+            return set;
+        }
+
+        /**
+         * 添加元素
+         *
+         * @param value 元素
+         * @return 是否为新元素
+         */
+        public boolean add(int value) {
+            if (value == 0) {
+                if (hasZero) {
+                    return false;
+                }
+                hasZero = true;
+                size++;
+                return true;
+            }
+            int i = mix(value) & mask;
+            while (table[i] != 0) {
+                if (table[i] == value) {
+                    return false;
+                }
+                i = (i + 1) & mask;
+            }
+            table[i] = value;
+            if (++size * 2 > table.length) {
+                rehash();
+            }
+            return true;
+        }
+
+        public boolean contains(int value) {
+            if (value == 0) {
+                return hasZero;
+            }
+            int i = mix(value) & mask;
+            while (table[i] != 0) {
+                if (table[i] == value) {
+                    return true;
+                }
+                i = (i + 1) & mask;
+            }
+            return false;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        private void rehash() {
+            int[] old = table;
+            table = new int[old.length << 1];
+            mask = table.length - 1;
+            for (int value : old) {
+                if (value != 0) {
+                    int i = mix(value) & mask;
+                    while (table[i] != 0) {
+                        i = (i + 1) & mask;
+                    }
+                    table[i] = value;
+                }
+            }
+        }
+    }
+
+    /**
+     * long集合
+     * 以0作为空槽位，0本身单独记录
+     */
+    public static class LongSet {
+        private long[] table;
+        private int mask;
+        private int size;
+        private boolean hasZero;
+
+        public LongSet() {
+            this(MIN_CAPACITY / 2);
+        }
+
+        public LongSet(int expectedSize) {
+            table = new long[capacity(expectedSize)];
+            mask = table.length - 1;
+        }
+
+        public static LongSet of(long... values) {
+            LongSet set = new LongSet(values.length);
+            for (long value : values) {
+                set.add(value);
+            }
+            return set;
+        }
+
+        /**
+         * 添加元素
+         *
+         * @param value 元素
+         * @return 是否为新元素
+         */
+        public boolean add(long value) {
+            if (value == 0) {
+                if (hasZero) {
+                    return false;
+                }
+                hasZero = true;
+                size++;
+                return true;
+            }
+            int i = mix(value) & mask;
+            while (table[i] != 0) {
+                if (table[i] == value) {
+                    return false;
+                }
+                i = (i + 1) & mask;
+            }
+            table[i] = value;
+            if (++size * 2 > table.length) {
+                rehash();
+            }
+            return true;
+        }
+
+        public boolean contains(long value) {
+            if (value == 0) {
+                return hasZero;
+            }
+            int i = mix(value) & mask;
+            while (table[i] != 0) {
+                if (table[i] == value) {
+                    return true;
+                }
+                i = (i + 1) & mask;
+            }
+            return false;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        private void rehash() {
+            long[] old = table;
+            table = new long[old.length << 1];
+            mask = table.length - 1;
+            for (long value : old) {
+                if (value != 0) {
+                    int i = mix(value) & mask;
+                    while (table[i] != 0) {
+                        i = (i + 1) & mask;
+                    }
+                    table[i] = value;
+                }
+            }
+        }
+    }
+
+    /**
+     * 键集合
+     * int/long键存入基本类型集合，不保留装箱对象，其余键（含null）存入{@link HashSet}
+     */
+    public static class KeySet {
+        private final IntSet ints = new IntSet();
+        private final LongSet longs = new LongSet();
+        private final Set<Object> others = new HashSet<>();
+
+        /**
+         * 添加键
+         *
+         * @param key 键
+         * @return 是否为新键
+         */
+        public boolean add(Object key) {
+            if (key instanceof Integer) {
+                return ints.add((Integer) key);
+            }
+            if (key instanceof Long) {
+                return longs.add((Long) key);
+            }
+            return others.add(key);
+        }
+
+        public boolean contains(Object key) {
+            if (key instanceof Integer) {
+                return ints.contains((Integer) key);
+            }
+            if (key instanceof Long) {
+                return longs.contains((Long) key);
+            }
+            return others.contains(key);
+        }
+
+        public int size() {
+            return ints.size() + longs.size() + others.size();
+        }
+    }
+
+    /**
+     * 并发键集合
+     * 基于{@link ConcurrentHashMap}，以哨兵代替null键
+     */
+    public static class ConcurrentKeySet {
+        private static final Object NULL_KEY = new Object();
+
+        private final Set<Object> keys = ConcurrentHashMap.newKeySet();
+
+        /**
+         * 添加键
+         *
+         * @param key 键
+         * @return 是否为新键
+         */
+        public boolean add(Object key) {
+            return keys.add(Objects.isNull(key) ? NULL_KEY : key);
+        }
+
+        public boolean contains(Object key) {
+            return keys.contains(Objects.isNull(key) ? NULL_KEY : key);
+        }
+
+        public int size() {
+            return keys.size();
+        }
+    }
+}
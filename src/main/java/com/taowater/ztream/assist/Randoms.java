@@ -0,0 +1,156 @@
+package com.taowater.ztream.assist;
+
+import lombok.experimental.UtilityClass;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 随机相关
+ *
+ * @author zhu56
+ */
+@UtilityClass
+public class Randoms {
+
+    /**
+     * 取随机数生成器，未指定时取当前线程的
+     *
+     * @param random 随机数生成器
+     * @return {@link Random }
+     */
+    public static Random orCurrent(Random random) {
+        return Objects.isNull(random) ? ThreadLocalRandom.current() : random;
+    }
+
+    /**
+     * Fisher–Yates洗牌
+     *
+     * @param values 数组
+     * @param random 随机数生成器
+     */
+    public static void shuffle(Object[] values, Random random) {
+        for (int i = values.length - 1; i > 0; i--) {
+            swap(values, i, random.nextInt(i + 1));
+        }
+    }
+
+    /**
+     * [0, bound)内的随机long
+     */
+    static long nextLong(Random random, long bound) {
+        if (bound <= Integer.MAX_VALUE) {
+            return random.nextInt((int) bound);
+        }
+        long r;
+        long m;
+        do {
+            r = random.nextLong() >>> 1;
+            m = r % bound;
+        } while (r - m + (bound - 1) < 0);
+        return m;
+    }
+
+    private static void swap(Object[] values, int i, int j) {
+        Object t = values[i];
+        values[i] = values[j];
+        values[j] = t;
+    }
+
+    /**
+     * 蓄水池，一次遍历等概率抽取至多k个元素，可合并
+     */
+    public static class Reservoir<T> {
+        /**
+         * 初始容量，之后按需扩容至k
+         */
+        private static final int INITIAL_CAPACITY = 16;
+
+        private final int k;
+        private final Random random;
+        private Object[] items;
+        private int size;
+        /**
+         * 已遍历的元素数
+         */
+        private long count;
+
+        public Reservoir(int k, Random random) {
+            this.k = k;
+            this.random = orCurrent(random);
+            this.items = new Object[Math.min(k, INITIAL_CAPACITY)];
+        }
+
+        public void add(T t) {
+            count++;
+            if (size < k) {
+                ensureCapacity(size + 1);
+                items[size++] = t;
+                return;
+            }
+            long j = nextLong(random, count);
+            if (j < k) {
+                items[(int) j] = t;
+            }
+        }
+
+        /**
+         * 合并，按两侧已遍历元素数逐个抽取，结果仍为整体的等概率样本
+         *
+         * @param other 另一蓄水池
+         * @return 合并后的蓄水池
+         */
+        public Reservoir<T> merge(Reservoir<T> other) {
+            if (other.count == 0) {
+                return this;
+            }
+            if (count == 0) {
+                return other;
+            }
+            Object[] left = Arrays.copyOf(items, size);
+            Object[] right = Arrays.copyOf(other.items, other.size);
+            shuffle(left, random);
+            shuffle(right, random);
+            long restLeft = count;
+            long restRight = other.count;
+            int takeLeft = 0;
+            int takeRight = 0;
+            int n = (int) Math.min(k, restLeft + restRight);
+            ensureCapacity(n);
+            for (int i = 0; i < n; i++) {
+                if (nextLong(random, restLeft + restRight) < restLeft) {
+                    items[i] = left[takeLeft++];
+                    restLeft--;
+                } else {
+                    items[i] = right[takeRight++];
+                    restRight--;
+                }
+            }
+            size = n;
+            count += other.count;
+            return this;
+        }
+
+        /**
+         * 按1.5倍扩容，不超过k
+         */
+        private void ensureCapacity(int capacity) {
+            if (capacity > items.length) {
+                items = Arrays.copyOf(items, (int) Math.min(k, Math.max(capacity, items.length + (items.length >> 1) + 1L)));
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        public List<T> toList() {
+            List<T> list = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                list.add((T) items[i]);
+            }
+            return list;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.taowater.ztream.assist;
+
+import lombok.experimental.UtilityClass;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+
+/**
+ * 流数据源相关
+ * 数据源为集合或数组时直接读取，无需遍历流
+ *
+ * @author zhu56
+ */
+@UtilityClass
+public class Sources {
+
+    /**
+     * 数据源的元素个数
+     *
+     * @param source 数据源
+     * @return 元素个数，未知时为-1
+     */
+    public static long size(Object source) {
+        if (source instanceof Collection) {
+            return ((Collection<?>) source).size();
+        }
+        if (source instanceof Object[]) {
+            return ((Object[]) source).length;
+        }
+        return -1;
+    }
+
+    /**
+     * 数据源是否可按下标直接取值
+     *
+     * @param source 数据源
+     */
+    public static boolean indexed(Object source) {
+        return (source instanceof List && source instanceof RandomAccess) || source instanceof Object[];
+    }
+
+    /**
+     * 按下标取值，数据源须满足{@link #indexed(Object)}
+     *
+     * @param source 数据源
+     * @param index  下标
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T get(Object source, int index) {
+        if (source instanceof Object[]) {
+            return (T) ((Object[]) source)[index];
+        }
+        return ((List<T>) source).get(index);
+    }
+
+    /**
+     * 数据源[from, to)范围的分割器
+     * 数组和可随机访问的列表直接定位，其余集合通过拆分分割器截取
+     *
+     * @param source 数据源
+     * @param from   起始下标（含）
+     * @param to     结束下标（不含）
+     * @return 分割器，无法直接截取时为null
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Spliterator<T> spliterator(Object source, int from, int to) {
+        if (source instanceof Object[]) {
+            return Arrays.spliterator((T[]) source, from, to);
+        }
+        if (source instanceof List && source instanceof RandomAccess) {
+            return ((List<T>) source).subList(from, to).spliterator();
+        }
+        if (source instanceof Collection) {
+            return Spliterators.slice(((Collection<T>) source).spliterator(), from, to);
+        }
+        return null;
+    }
+
+    /**
+     * 数据源[from, to)范围的视图
+     * 延迟绑定，每次访问时按数据源当前的元素个数计算范围
+     *
+     * @param source 数据源
+     * @param from   起始下标（含）
+     * @param to     结束下标（不含）
+     * @return 视图，数据源不可按下标取值时为null
+     */
+    public static <T> List<T> subList(Object source, long from, long to) {
+        if (indexed(source)) {
+            return new SliceView<>(source, from, to);
+        }
+        return null;
+    }
+
+    // 延迟绑定的范围视图
+    private static class SliceView<T> extends AbstractList<T> implements RandomAccess {
+        private final Object source;
+        private final long from;
+        private final long to;
+
+        SliceView(Object source, long from, long to) {
+            this.source = source;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public T get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+            }
+            return Sources.get(source, (int) (from + index));
+        }
+
+        @Override
+        public int size() {
+            long size = Sources.size(source);
+            return (int) (Math.min(to, size) - Math.min(from, size));
+        }
+    }
+
+    /**
+     * 复制为{@link ArrayList}
+     *
+     * @param source 数据源
+     * @return 复制的列表，数据源不是集合或数组时为null
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> List<T> toList(Object source) {
+        if (source instanceof Collection) {
+            return new ArrayList<>((Collection<T>) source);
+        }
+        if (source instanceof Object[]) {
+            return new ArrayList<>(Arrays.asList((T[]) source));
+        }
+        return null;
+    }
+}
@@ -1,13 +1,21 @@
 package com.taowater.ztream.assist;
 
-import com.taowater.ztream.Ztream;
 import lombok.experimental.UtilityClass;
 
-import java.util.*;
-import java.util.Map.Entry;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Spliterator;
 import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
 import java.util.function.Function;
-import java.util.stream.Collector;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.function.LongConsumer;
+import java.util.stream.StreamSupport;
 
 /**
  * 分割器相关
@@ -17,75 +25,6 @@ import java.util.stream.Collector;
 @UtilityClass
 public class Spliterators {
 
-    // 分组用分割器
-    public static class GroupSpliterator<T, K, V, A, D> implements Spliterator<Entry<K, D>> {
-        /**
-         * 源分割器
-         */
-        private final Spliterator<T> sourceSpliterator;
-        /**
-         * 分族元素容器
-         */
-        private final Map<K, List<T>> groups = new HashMap<>();
-        private Iterator<Entry<K, List<T>>> groupIterator;
-
-        private final Function<? super T, ? extends K> funK;
-        private final Function<? super T, ? extends V> funV;
-        private final Collector<? super V, A, D> downstream;
-
-        public GroupSpliterator(Spliterator<T> sourceSpliterator,
-                                Function<? super T, ? extends K> funK,
-                                Function<? super T, ? extends V> funV,
-                                Collector<? super V, A, D> downstream
-        ) {
-            this.sourceSpliterator = sourceSpliterator;
-            this.funK = funK;
-            this.funV = funV;
-            this.downstream = downstream;
-        }
-
-        @Override
-        public boolean tryAdvance(Consumer<? super Entry<K, D>> action) {
-            if (groupIterator == null) {
-                sourceSpliterator.forEachRemaining(item -> {
-                    K key = null;
-                    if (Objects.nonNull(item)) {
-                        key = funK.apply(item);
-                    }
-                    groups.computeIfAbsent(key, k -> new ArrayList<>()).add(item);
-                });
-                groupIterator = groups.entrySet().iterator();
-            }
-            if (groupIterator.hasNext()) {
-                Map.Entry<K, D> newEntry = Functions.entryKeyValue(groupIterator.next(), k -> k, v -> Ztream.of(v).map(i -> {
-                    V iv = null;
-                    if (Objects.nonNull(i)) {
-                        iv = funV.apply(i);
-                    }
-                    return iv;
-                }).collect(downstream));
-                action.accept(newEntry);
-                return true;
-            }
-            return false;
-        }
-
-        @Override
-        public Spliterator<Entry<K, D>> trySplit() {
-            return null; // 不支持并行拆分
-        }
-
-        @Override
-        public long estimateSize() {
-            return sourceSpliterator.estimateSize();
-        }
-
-        @Override
-        public int characteristics() {
-            return sourceSpliterator.characteristics() & ~(Spliterator.SIZED | Spliterator.SUBSIZED);
-        }
-    }
-
     // 追加分割器
     public static class AppendSpliterator<T> implements Spliterator<T> {
         /**
@@ -159,4 +98,441 @@ public class Spliterators {
             return characteristics;
         }
     }
+
+    /**
+     * 截取[from, to)范围的元素
+     * 对可精确拆分的分割器反复拆分，整块跳过范围外的部分，不遍历被跳过的元素
+     *
+     * @param spliterator 分割器
+     * @param from        起始下标（含）
+     * @param to          结束下标（不含）
+     * @return 截取后的分割器，分割器不可精确拆分时返回null
+     */
+    public static <T> Spliterator<T> slice(Spliterator<T> spliterator, long from, long to) {
+        if (!spliterator.hasCharacteristics(Spliterator.SUBSIZED)) {
+            return null;
+        }
+        List<Spliterator<T>> chunks = new ArrayList<>();
+        slice(spliterator, 0, from, to, chunks);
+        if (chunks.isEmpty()) {
+            return java.util.Spliterators.emptySpliterator();
+        }
+        Spliterator<T> result = chunks.get(chunks.size() - 1);
+        for (int i = chunks.size() - 2; i >= 0; i--) {
+            result = new AppendSpliterator<>(chunks.get(i), result);
+        }
+        return result;
+    }
+
+    private static <T> void slice(Spliterator<T> spliterator, long base, long from, long to, List<Spliterator<T>> chunks) {
+        long size = spliterator.getExactSizeIfKnown();
+        long end = base + size;
+        if (end <= from || base >= to) {
+            return;
+        }
+        if (base >= from && end <= to) {
+            chunks.add(spliterator);
+            return;
+        }
+        Spliterator<T> prefix = spliterator.trySplit();
+        if (Objects.isNull(prefix)) {
+            // 无法再拆分时逐个跳过，此时剩余的块已很小
+            long skip = Math.max(0, from - base);
+            long limit = Math.min(to, end) - base - skip;
+            chunks.add(StreamSupport.stream(spliterator, false).skip(skip).limit(limit).spliterator());
+            return;
+        }
+        long prefixSize = prefix.getExactSizeIfKnown();
+        slice(prefix, base, from, to, chunks);
+        slice(spliterator, base + prefixSize, from, to, chunks);
+    }
+
+    /**
+     * 倒序遍历数据源的分割器
+     * 仅支持可随机访问的列表、数组和双端队列，其余返回null
+     *
+     * @param source 数据源
+     * @return 倒序分割器
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Spliterator<T> reverse(Object source) {
+        if (source instanceof List && source instanceof RandomAccess) {
+            List<T> list = (List<T>) source;
+            return new ReverseSpliterator<>(list::get, list.size());
+        }
+        if (source instanceof Object[]) {
+            T[] array = (T[]) source;
+            return new ReverseSpliterator<>(i -> array[i], array.length);
+        }
+        if (source instanceof Deque) {
+            Deque<T> deque = (Deque<T>) source;
+            return java.util.Spliterators.spliterator(deque.descendingIterator(), deque.size(), Spliterator.ORDERED);
+        }
+        return null;
+    }
+
+    // 倒序分割器，从高位向低位遍历按下标取值的数据
+    public static class ReverseSpliterator<T> implements Spliterator<T> {
+        private final IntFunction<T> getter;
+        private final int lo;
+        private int hi;
+
+        public ReverseSpliterator(IntFunction<T> getter, int size) {
+            this(getter, 0, size);
+        }
+
+        private ReverseSpliterator(IntFunction<T> getter, int lo, int hi) {
+            this.getter = getter;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (hi <= lo) {
+                return false;
+            }
+            action.accept(getter.apply(--hi));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            int i = hi;
+            hi = lo;
+            while (i > lo) {
+                action.accept(getter.apply(--i));
+            }
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            int mid = (lo + hi) >>> 1;
+            if (mid <= lo) {
+                return null;
+            }
+            // 倒序时高位一半在前
+            Spliterator<T> prefix = new ReverseSpliterator<>(getter, mid, hi);
+            hi = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return hi - lo;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED;
+        }
+    }
+
+    // 带下标的分割器，下标为元素在源中的遇到顺序
+    // 源可精确拆分时拆出的前半段携带起始下标，否则按批次缓冲拆分，均无共享状态
+    public static class IndexedSpliterator<T, R> implements Spliterator<R> {
+        private static final int BATCH_UNIT = 1 << 10;
+        private static final int MAX_BATCH = 1 << 25;
+
+        private final Spliterator<T> source;
+        private final Functions.ObjLongFunction<? super T, ? extends R> mapper;
+        private long index;
+        private int batch;
+
+        public IndexedSpliterator(Spliterator<T> source, Functions.ObjLongFunction<? super T, ? extends R> mapper) {
+            this(source, mapper, 0);
+        }
+
+        private IndexedSpliterator(Spliterator<T> source, Functions.ObjLongFunction<? super T, ? extends R> mapper, long index) {
+            this.source = source;
+            this.mapper = mapper;
+            this.index = index;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super R> action) {
+            return source.tryAdvance(e -> action.accept(mapper.apply(e, index++)));
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super R> action) {
+            source.forEachRemaining(e -> action.accept(mapper.apply(e, index++)));
+        }
+
+        @Override
+        public Spliterator<R> trySplit() {
+            if (source.hasCharacteristics(SUBSIZED)) {
+                Spliterator<T> prefix = source.trySplit();
+                if (Objects.isNull(prefix)) {
+                    return null;
+                }
+                long start = index;
+                index += prefix.getExactSizeIfKnown();
+                return new IndexedSpliterator<>(prefix, mapper, start);
+            }
+            long size = source.estimateSize();
+            if (size <= 1) {
+                return null;
+            }
+            int n = Math.min(batch + BATCH_UNIT, MAX_BATCH);
+            if (size < n) {
+                n = (int) size;
+            }
+            Object[] buffer = new Object[n];
+            Box<T> box = new Box<>();
+            int j = 0;
+            while (j < n && source.tryAdvance(box)) {
+                buffer[j++] = box.getA();
+            }
+            if (j == 0) {
+                return null;
+            }
+            batch = j;
+            long start = index;
+            index += j;
+            Spliterator<T> prefix = java.util.Spliterators.spliterator(buffer, 0, j, source.characteristics() & ~CONCURRENT);
+            return new IndexedSpliterator<>(prefix, mapper, start);
+        }
+
+        @Override
+        public long estimateSize() {
+            return source.estimateSize();
+        }
+
+        @Override
+        public int characteristics() {
+            return source.characteristics() & (ORDERED | SIZED | SUBSIZED | IMMUTABLE | CONCURRENT);
+        }
+    }
+
+    // 按键去重分割器，只记录出现过的键，保留首个元素；分割时取出一批去重后的元素交给其他线程
+    public static class DistinctSpliterator<T> implements Spliterator<T> {
+        private static final int BATCH_UNIT = 1 << 10;
+        private static final int MAX_BATCH = 1 << 25;
+
+        private final Spliterator<T> source;
+        private final Function<? super T, ?> fun;
+        private final PrimitiveSets.KeySet seen = new PrimitiveSets.KeySet();
+        private boolean found;
+        private int batch;
+
+        public DistinctSpliterator(Spliterator<T> source, Function<? super T, ?> fun) {
+            this.source = source;
+            this.fun = fun;
+        }
+
+        private boolean firstSeen(T e) {
+            return seen.add(Objects.isNull(e) ? null : fun.apply(e));
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            found = false;
+            while (!found && source.tryAdvance(e -> {
+                if (firstSeen(e)) {
+                    found = true;
+                    action.accept(e);
+                }
+            })) {
+            }
+            return found;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            source.forEachRemaining(e -> {
+                if (firstSeen(e)) {
+                    action.accept(e);
+                }
+            });
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            int n = Math.min(batch + BATCH_UNIT, MAX_BATCH);
+            Object[] array = new Object[n];
+            int[] size = {0};
+            while (size[0] < n && tryAdvance(e -> array[size[0]++] = e)) {
+            }
+            if (size[0] == 0) {
+                return null;
+            }
+            batch = size[0];
+            return java.util.Spliterators.spliterator(array, 0, size[0], characteristics() & ORDERED);
+        }
+
+        @Override
+        public long estimateSize() {
+            return source.estimateSize();
+        }
+
+        @Override
+        public int characteristics() {
+            return source.characteristics() & ~(SIZED | SUBSIZED);
+        }
+
+        @Override
+        public Comparator<? super T> getComparator() {
+            return source.getComparator();
+        }
+    }
+
+    // int去重分割器
+    public static class IntDistinctSpliterator implements Spliterator.OfInt {
+        private final Spliterator.OfInt source;
+        private final PrimitiveSets.IntSet seen = new PrimitiveSets.IntSet();
+        private boolean found;
+
+        public IntDistinctSpliterator(Spliterator.OfInt source) {
+            this.source = source;
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            found = false;
+            while (!found && source.tryAdvance((int e) -> {
+                if (seen.add(e)) {
+                    found = true;
+                    action.accept(e);
+                }
+            })) {
+            }
+            return found;
+        }
+
+        @Override
+        public void forEachRemaining(IntConsumer action) {
+            source.forEachRemaining((int e) -> {
+                if (seen.add(e)) {
+                    action.accept(e);
+                }
+            });
+        }
+
+        @Override
+        public Spliterator.OfInt trySplit() {
+            return null;
+        }
+
+        @Override
+        public long estimateSize() {
+            return source.estimateSize();
+        }
+
+        @Override
+        public int characteristics() {
+            return source.characteristics() & ~(SIZED | SUBSIZED) | DISTINCT;
+        }
+
+        @Override
+        public Comparator<? super Integer> getComparator() {
+            return source.getComparator();
+        }
+    }
+
+    // long去重分割器
+    public static class LongDistinctSpliterator implements Spliterator.OfLong {
+        private final Spliterator.OfLong source;
+        private final PrimitiveSets.LongSet seen = new PrimitiveSets.LongSet();
+        private boolean found;
+
+        public LongDistinctSpliterator(Spliterator.OfLong source) {
+            this.source = source;
+        }
+
+        @Override
+        public boolean tryAdvance(LongConsumer action) {
+            found = false;
+            while (!found && source.tryAdvance((long e) -> {
+                if (seen.add(e)) {
+                    found = true;
+                    action.accept(e);
+                }
+            })) {
+            }
+            return found;
+        }
+
+        @Override
+        public void forEachRemaining(LongConsumer action) {
+            source.forEachRemaining((long e) -> {
+                if (seen.add(e)) {
+                    action.accept(e);
+                }
+            });
+        }
+
+        @Override
+        public Spliterator.OfLong trySplit() {
+            return null;
+        }
+
+        @Override
+        public long estimateSize() {
+            return source.estimateSize();
+        }
+
+        @Override
+        public int characteristics() {
+            return source.characteristics() & ~(SIZED | SUBSIZED) | DISTINCT;
+        }
+
+        @Override
+        public Comparator<? super Long> getComparator() {
+            return source.getComparator();
+        }
+    }
+
+    // double去重分割器，与Double.equals一致按doubleToLongBits判等
+    public static class DoubleDistinctSpliterator implements Spliterator.OfDouble {
+        private final Spliterator.OfDouble source;
+        private final PrimitiveSets.LongSet seen = new PrimitiveSets.LongSet();
+        private boolean found;
+
+        public DoubleDistinctSpliterator(Spliterator.OfDouble source) {
+            this.source = source;
+        }
+
+        @Override
+        public boolean tryAdvance(DoubleConsumer action) {
+            found = false;
+            while (!found && source.tryAdvance((double e) -> {
+                if (seen.add(Double.doubleToLongBits(e))) {
+                    found = true;
+                    action.accept(e);
+                }
+            })) {
+            }
+            return found;
+        }
+
+        @Override
+        public void forEachRemaining(DoubleConsumer action) {
+            source.forEachRemaining((double e) -> {
+                if (seen.add(Double.doubleToLongBits(e))) {
+                    action.accept(e);
+                }
+            });
+        }
+
+        @Override
+        public Spliterator.OfDouble trySplit() {
+            return null;
+        }
+
+        @Override
+        public long estimateSize() {
+            return source.estimateSize();
+        }
+
+        @Override
+        public int characteristics() {
+            return source.characteristics() & ~(SIZED | SUBSIZED) | DISTINCT;
+        }
+
+        @Override
+        public Comparator<? super Double> getComparator() {
+            return source.getComparator();
+        }
+    }
 }
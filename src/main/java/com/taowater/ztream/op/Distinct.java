@@ -1,10 +1,14 @@
 package com.taowater.ztream.op;
 
-import com.taowater.ztream.Any;
 import com.taowater.ztream.IZtream;
-import com.taowater.ztream.assist.Box;
+import com.taowater.ztream.assist.ExCollectors;
+import com.taowater.ztream.assist.PrimitiveSets;
+import com.taowater.ztream.assist.Spliterators;
 
+import java.util.Objects;
+import java.util.Spliterator;
 import java.util.function.Function;
+import java.util.stream.StreamSupport;
 
 /**
  * 去重相关操作
@@ -14,7 +18,7 @@ import java.util.function.Function;
 public interface Distinct<T, S extends IZtream<T, S>> extends IZtream<T, S> {
 
     /**
-     * 按某属性去重
+     * 按某属性去重，保留首个元素
      *
      * @param fun 属性
      */
@@ -23,7 +27,8 @@ public interface Distinct<T, S extends IZtream<T, S>> extends IZtream<T, S> {
     }
 
     /**
-     * 按某属性去重
+     * 按某属性去重，保留首个元素
+     * 只记录出现过的键（int/long键不装箱），并行时按顺序去重后分批交给下游
      *
      * @param condition 执行条件
      * @param fun       属性
@@ -32,9 +37,28 @@ public interface Distinct<T, S extends IZtream<T, S>> extends IZtream<T, S> {
         if (!condition) {
             return ztream(this);
         }
-        return ztream(map(t -> new Box.PairBox<>(t, Any.of(t).get(fun)))
-                .distinct()
-                .map(Box::getA));
+        return ztream(StreamSupport.stream(new Spliterators.DistinctSpliterator<>(spliterator(), fun), isParallel()).onClose(this::close));
+    }
+
+    /**
+     * 按某属性去重，保留最后一个元素，结果按各元素最后一次出现的位置排列
+     *
+     * @param fun 属性
+     */
+    default S distinctLast(Function<? super T, ?> fun) {
+        return ztream(StreamSupport.stream(() -> collect(ExCollectors.distinct(fun, true)).spliterator(),
+                Spliterator.SIZED | Spliterator.ORDERED, isParallel()).onClose(this::close));
+    }
+
+    /**
+     * 按某属性去重，不保证保留的是哪一个元素
+     * 基于并发集合过滤，并行时无需按顺序合并
+     *
+     * @param fun 属性
+     */
+    default S distinctUnordered(Function<? super T, ?> fun) {
+        PrimitiveSets.ConcurrentKeySet seen = new PrimitiveSets.ConcurrentKeySet();
+        return ztream(unordered().filter(e -> seen.add(Objects.isNull(e) ? null : fun.apply(e))));
     }
 
     /**
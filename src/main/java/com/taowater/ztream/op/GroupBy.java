@@ -2,7 +2,7 @@ package com.taowater.ztream.op;
 
 import com.taowater.ztream.assist.ExCollectors;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -118,6 +118,67 @@ public interface GroupBy<T> extends Stream<T> {
         return this.collect(ExCollectors.groupingBy(funK, mapFactory, ExCollectors.mapping(funV, downstream)));
     }
 
+    /**
+     * 并发分组-缺省值类型、Map类型及组集合类型，默认为元素本身、HashMap及ArrayList
+     *
+     * @param funK 分组依据
+     * @return 分组结果
+     */
+    default <K> Map<K, List<T>> groupByConcurrent(Function<? super T, ? extends K> funK) {
+        return this.groupByConcurrent(funK, Function.identity());
+    }
+
+    /**
+     * 并发分组-缺省值类型及Map类型，默认为元素本身及HashMap
+     *
+     * @param funK       分组依据
+     * @param downstream 下游
+     * @return 分组结果
+     */
+    @SuppressWarnings("unchecked")
+    default <K, A, D, M extends Map<K, D>> M groupByConcurrent(Function<? super T, ? extends K> funK, Collector<? super T, A, D> downstream) {
+        return (M) this.groupByConcurrent(funK, Function.identity(), HashMap::new, downstream);
+    }
+
+    /**
+     * 并发分组-缺省Map类型及组集合类型，默认为HashMap及ArrayList
+     *
+     * @param funK 分组依据
+     * @param funV 值依据
+     * @return 分组结果
+     */
+    default <K, V> Map<K, List<V>> groupByConcurrent(Function<? super T, ? extends K> funK, Function<? super T, ? extends V> funV) {
+        return this.groupByConcurrent(funK, funV, HashMap::new, Collectors.toList());
+    }
+
+    /**
+     * 并发分组-缺省Map类型，默认为HashMap
+     *
+     * @param funK       分组依据
+     * @param funV       值依据
+     * @param downstream 下游操作(组集合的类型)
+     * @return 分组结果
+     */
+    @SuppressWarnings("unchecked")
+    default <K, V, A, D, M extends Map<K, D>> M groupByConcurrent(Function<? super T, ? extends K> funK, Function<? super T, ? extends V> funV, Collector<? super V, A, D> downstream) {
+        return (M) this.groupByConcurrent(funK, funV, HashMap::new, downstream);
+    }
+
+    /**
+     * 并发分组
+     * 适用于大数据量的并行流：各线程写入同一个并发map，免去合并各线程分组结果的开销；
+     * 不保证组内元素的顺序，同样允许null键
+     *
+     * @param funK       分组依据
+     * @param funV       值依据
+     * @param mapFactory 提供的map
+     * @param downstream 下游操作(组集合的类型)
+     * @return 分组结果
+     */
+    default <K, V, A, D, M extends Map<K, D>> M groupByConcurrent(Function<? super T, ? extends K> funK, Function<? super T, ? extends V> funV, Supplier<M> mapFactory, Collector<? super V, A, D> downstream) {
+        return this.collect(ExCollectors.groupingByConcurrent(funK, mapFactory, ExCollectors.mapping(funV, downstream)));
+    }
+
     /**
      * 两层分组
      *
@@ -139,26 +200,29 @@ public interface GroupBy<T> extends Stream<T> {
      */
     @SuppressWarnings("unchecked")
     default <K, K2, V, M extends Map<K, Map<K2, List<V>>>> M groupBilayer(Function<? super T, ? extends K> funK, Function<? super T, ? extends K2> funK2, Function<? super T, ? extends V> funV) {
-        return (M) this.reduce(new HashMap<K, Map<K2, List<V>>>(), (map, e) -> {
-            Map<K2, List<V>> subMap = map.computeIfAbsent(funK.apply(e), k -> new HashMap<>());
-            List<V> list = subMap.computeIfAbsent(funK2.apply(e), k -> new ArrayList<>());
-            list.add(funV.apply(e));
-            return map;
-        }, (map1, map2) -> {
-            map1.forEach((k, v) -> {
-                Map<K2, List<V>> v2 = map2.get(k);
-                map1.merge(k, v2, (o, n) -> {
-                    o.forEach((sk, sv) -> {
-                        List<V> sv2 = v2.get(sk);
-                        o.merge(sk, sv2, (so, sn) -> {
-                            so.addAll(sn);
-                            return so;
-                        });
-                    });
-                    return o;
-                });
-            });
-            return map1;
-        });
+        return (M) this.groupMultilayer(ExCollectors.mapping(funV, Collectors.toList()), Arrays.<Function<? super T, ?>>asList(funK, funK2));
+    }
+
+    /**
+     * 多层分组-叶子组缺省为元素本身的ArrayList
+     *
+     * @param funKs 各层分组依据，由外到内
+     * @return 分组结果
+     */
+    default Map<?, ?> groupMultilayer(List<? extends Function<? super T, ?>> funKs) {
+        return this.groupMultilayer(Collectors.toList(), funKs);
+    }
+
+    /**
+     * 多层分组
+     * 如 区域→门店→日期 的多层统计：groupMultilayer(Collectors.counting(), Arrays.asList(Order::getRegion, Order::getStore, Order::getDay))
+     * 各层均为HashMap，允许null键
+     *
+     * @param downstream 叶子组的下游
+     * @param funKs      各层分组依据，由外到内
+     * @return 分组结果
+     */
+    default Map<?, ?> groupMultilayer(Collector<? super T, ?, ?> downstream, List<? extends Function<? super T, ?>> funKs) {
+        return this.collect(ExCollectors.groupingMultilayer(funKs, downstream));
     }
 }
@@ -2,12 +2,15 @@ package com.taowater.ztream.op;
 
 import com.taowater.ztream.EntryZtream;
 import com.taowater.ztream.IZtream;
+import com.taowater.ztream.assist.ExCollectors;
 import com.taowater.ztream.assist.Functions;
-import com.taowater.ztream.assist.Spliterators;
-import lombok.var;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map.Entry;
+import java.util.Spliterator;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collector;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
@@ -45,6 +48,8 @@ public interface ToEntry<T, S extends IZtream<T, S>> extends IZtream<T, S>, Dist
 
     /**
      * 分组
+     * 元素在单次遍历中直接进入各组的下游收集器，并行时各线程分别分组后再合并；
+     * 分组在终端操作时才执行，得到的键值对流以组数为大小
      *
      * @param funK       键函数
      * @param funV       值函数
@@ -52,8 +57,8 @@ public interface ToEntry<T, S extends IZtream<T, S>> extends IZtream<T, S>, Dist
      * @return {@link EntryZtream }<{@link K }, {@link D }>
      */
     default <K, V, A, D> EntryZtream<K, D> group(Function<? super T, K> funK, Function<? super T, V> funV, Collector<? super V, A, D> downstream) {
-        var spliterator = new Spliterators.GroupSpliterator<>(spliterator(), funK, funV, downstream);
-        return EntryZtream.of(StreamSupport.stream(spliterator, isParallel()));
+        Supplier<Spliterator<Entry<K, D>>> supplier = () -> collect(ExCollectors.groupingBy(funK, HashMap::new, ExCollectors.mapping(funV, downstream))).entrySet().spliterator();
+        return EntryZtream.of(StreamSupport.stream(supplier, Spliterator.SIZED | Spliterator.DISTINCT, isParallel()).onClose(this::close));
     }
 
     /**
@@ -1,5 +1,7 @@
 package com.taowater.ztream.op.filter;
 
+import com.taowater.taol.core.function.Function1;
+
 import java.util.Collection;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -194,6 +196,17 @@ public interface Compare<T, W> extends CompareX<T, W> {
         return lt(true, fun, value);
     }
 
+    /**
+     * 小于
+     * 可序列化的方法引用会被识别为同一属性，同一属性的区间条件可合并
+     *
+     * @param fun   属性
+     * @param value 值
+     */
+    default <N extends Comparable<? super N>> W lt(Function1<? super T, ? extends N> fun, N value) {
+        return lt((Function<? super T, ? extends N>) fun, value);
+    }
+
     /**
      * 小于等于
      *
@@ -204,6 +217,17 @@ public interface Compare<T, W> extends CompareX<T, W> {
         return le(true, fun, value);
     }
 
+    /**
+     * 小于等于
+     * 可序列化的方法引用会被识别为同一属性，同一属性的区间条件可合并
+     *
+     * @param fun   属性
+     * @param value 值
+     */
+    default <N extends Comparable<? super N>> W le(Function1<? super T, ? extends N> fun, N value) {
+        return le((Function<? super T, ? extends N>) fun, value);
+    }
+
     /**
      * 大于
      *
@@ -214,6 +238,17 @@ public interface Compare<T, W> extends CompareX<T, W> {
         return gt(true, fun, value);
     }
 
+    /**
+     * 大于
+     * 可序列化的方法引用会被识别为同一属性，同一属性的区间条件可合并
+     *
+     * @param fun   属性
+     * @param value 值
+     */
+    default <N extends Comparable<? super N>> W gt(Function1<? super T, ? extends N> fun, N value) {
+        return gt((Function<? super T, ? extends N>) fun, value);
+    }
+
     /**
      * 大于等于
      *
@@ -224,6 +259,17 @@ public interface Compare<T, W> extends CompareX<T, W> {
         return ge(true, fun, value);
     }
 
+    /**
+     * 大于等于
+     * 可序列化的方法引用会被识别为同一属性，同一属性的区间条件可合并
+     *
+     * @param fun   属性
+     * @param value 值
+     */
+    default <N extends Comparable<? super N>> W ge(Function1<? super T, ? extends N> fun, N value) {
+        return ge((Function<? super T, ? extends N>) fun, value);
+    }
+
     /**
      * 区间
      *
@@ -235,6 +281,18 @@ public interface Compare<T, W> extends CompareX<T, W> {
         return between(true, fun, leftValue, rightValue);
     }
 
+    /**
+     * 区间
+     * 可序列化的方法引用会被识别为同一属性，同一属性的区间条件可合并
+     *
+     * @param fun        属性
+     * @param leftValue  左值
+     * @param rightValue 右值
+     */
+    default <N extends Comparable<? super N>> W between(Function1<? super T, ? extends N> fun, N leftValue, N rightValue) {
+        return between((Function<? super T, ? extends N>) fun, leftValue, rightValue);
+    }
+
     /**
      * 过滤指定字符属性以value开头的元素
      *
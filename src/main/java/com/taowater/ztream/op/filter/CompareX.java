@@ -1,5 +1,6 @@
 package com.taowater.ztream.op.filter;
 
+import com.taowater.taol.core.function.Function1;
 import com.taowater.taol.core.util.EmptyUtil;
 
 import java.util.Collection;
@@ -115,6 +116,17 @@ public interface CompareX<T, W> extends ConditionCompare<T, W> {
         return lt(EmptyUtil.isNotEmpty(value), fun, value);
     }
 
+    /**
+     * 小于
+     * 可序列化的方法引用会被识别为同一属性，同一属性的区间条件可合并
+     *
+     * @param fun   属性
+     * @param value 值
+     */
+    default <N extends Comparable<? super N>> W ltX(Function1<? super T, ? extends N> fun, N value) {
+        return ltX((Function<? super T, ? extends N>) fun, value);
+    }
+
     /**
      * 小于等于
      *
@@ -125,6 +137,17 @@ public interface CompareX<T, W> extends ConditionCompare<T, W> {
         return le(EmptyUtil.isNotEmpty(value), fun, value);
     }
 
+    /**
+     * 小于等于
+     * 可序列化的方法引用会被识别为同一属性，同一属性的区间条件可合并
+     *
+     * @param fun   属性
+     * @param value 值
+     */
+    default <N extends Comparable<? super N>> W leX(Function1<? super T, ? extends N> fun, N value) {
+        return leX((Function<? super T, ? extends N>) fun, value);
+    }
+
     /**
      * 大于
      *
@@ -135,6 +158,17 @@ public interface CompareX<T, W> extends ConditionCompare<T, W> {
         return gt(EmptyUtil.isNotEmpty(value), fun, value);
     }
 
+    /**
+     * 大于
+     * 可序列化的方法引用会被识别为同一属性，同一属性的区间条件可合并
+     *
+     * @param fun   属性
+     * @param value 值
+     */
+    default <N extends Comparable<? super N>> W gtX(Function1<? super T, ? extends N> fun, N value) {
+        return gtX((Function<? super T, ? extends N>) fun, value);
+    }
+
     /**
      * 大于等于
      *
@@ -145,6 +179,17 @@ public interface CompareX<T, W> extends ConditionCompare<T, W> {
         return ge(EmptyUtil.isNotEmpty(value), fun, value);
     }
 
+    /**
+     * 大于等于
+     * 可序列化的方法引用会被识别为同一属性，同一属性的区间条件可合并
+     *
+     * @param fun   属性
+     * @param value 值
+     */
+    default <N extends Comparable<? super N>> W geX(Function1<? super T, ? extends N> fun, N value) {
+        return geX((Function<? super T, ? extends N>) fun, value);
+    }
+
     /**
      * 区间
      *
@@ -156,6 +201,18 @@ public interface CompareX<T, W> extends ConditionCompare<T, W> {
         return between(EmptyUtil.isAllNotEmpty(leftValue, rightValue), fun, leftValue, rightValue);
     }
 
+    /**
+     * 区间
+     * 可序列化的方法引用会被识别为同一属性，同一属性的区间条件可合并
+     *
+     * @param fun        属性
+     * @param leftValue  左值
+     * @param rightValue 右值
+     */
+    default <N extends Comparable<? super N>> W betweenX(Function1<? super T, ? extends N> fun, N leftValue, N rightValue) {
+        return betweenX((Function<? super T, ? extends N>) fun, leftValue, rightValue);
+    }
+
     /**
      * 过滤指定字符属性以value开头的元素
      *
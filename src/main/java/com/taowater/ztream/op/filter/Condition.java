@@ -0,0 +1,124 @@
+package com.taowater.ztream.op.filter;
+
+import lombok.Getter;
+
+import java.io.Serializable;
+import java.lang.invoke.SerializedLambda;
+import java.lang.reflect.Method;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * 条件描述
+ * 记录属性、操作符和操作数，本身也是对元素的判断
+ *
+ * @author zhu56
+ */
+@Getter
+@SuppressWarnings("unchecked")
+public class Condition<T> implements Predicate<T> {
+
+    /**
+     * 操作符
+     */
+    public enum Operator {
+        EQ, IN, NOT_IN, LT, LE, GT, GE, BETWEEN, LIKE, RIGHT_LIKE,
+        /**
+         * 对属性值的自定义判断
+         */
+        TEST
+    }
+
+    /**
+     * 属性，为null时以元素本身为值
+     */
+    private final Function<? super T, ?> fun;
+    private final Operator operator;
+    /**
+     * 操作数，区间时为左值
+     */
+    private final Object operand;
+    /**
+     * 区间的右值
+     */
+    private final Object operand2;
+    /**
+     * 对属性值的判断
+     */
+    private final Predicate<Object> valuePredicate;
+
+    private Condition(Function<? super T, ?> fun, Operator operator, Object operand, Object operand2, Predicate<Object> valuePredicate) {
+        this.fun = fun;
+        this.operator = operator;
+        this.operand = operand;
+        this.operand2 = operand2;
+        this.valuePredicate = valuePredicate;
+    }
+
+    /**
+     * 构建条件
+     *
+     * @param fun       属性，为null时以元素本身为值
+     * @param operator  操作符
+     * @param operand   操作数
+     * @param operand2  区间的右值
+     * @param predicate 对属性值的判断
+     */
+    public static <T, V> Condition<T> of(Function<? super T, ? extends V> fun, Operator operator, Object operand, Object operand2, Predicate<? super V> predicate) {
+        return new Condition<>(fun, operator, operand, operand2, (Predicate<Object>) predicate);
+    }
+
+    /**
+     * 取元素的属性值
+     */
+    public Object value(T e) {
+        if (Objects.isNull(fun)) {
+            return e;
+        }
+        return Objects.isNull(e) ? null : fun.apply(e);
+    }
+
+    @Override
+    public boolean test(T e) {
+        return valuePredicate.test(value(e));
+    }
+
+    /**
+     * 是否为区间类条件
+     */
+    boolean isRange() {
+        return Objects.nonNull(fun) && (operator == Operator.LT || operator == Operator.LE
+                || operator == Operator.GT || operator == Operator.GE || operator == Operator.BETWEEN);
+    }
+
+    /**
+     * 属性标识
+     * 同一实例，或可序列化且未捕获变量的同一方法引用视为同一属性
+     */
+    Object propertyKey() {
+        if (!(fun instanceof Serializable)) {
+            return fun;
+        }
+        try {
+            Method writeReplace = fun.getClass().getDeclaredMethod("writeReplace");
+            writeReplace.setAccessible(true);
+            SerializedLambda lambda = (SerializedLambda) writeReplace.invoke(fun);
+            if (lambda.getCapturedArgCount() > 0) {
+                return fun;
+            }
+            return lambda.getImplClass() + "::" + lambda.getImplMethodName() + lambda.getImplMethodSignature();
+        } catch (Exception e) {
+            return fun;
+        }
+    }
+
+    @Override
+    public String toString() {
+        String property = Objects.isNull(fun) ? "this" : "property";
+        if (operator == Operator.BETWEEN) {
+            return property + " BETWEEN " + operand + " AND " + operand2;
+        }
+        return property + " " + operator + (operator == Operator.TEST ? "" : " " + operand);
+    }
+}
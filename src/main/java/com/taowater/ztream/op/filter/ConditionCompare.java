@@ -1,15 +1,15 @@
 package com.taowater.ztream.op.filter;
 
+import com.taowater.taol.core.function.Function1;
 import com.taowater.taol.core.util.EmptyUtil;
 import com.taowater.ztream.Any;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Objects;
 import java.util.function.Function;
 import java.util.function.Predicate;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 /**
  * 比较操作
@@ -21,6 +21,15 @@ public interface ConditionCompare<T, W> {
 
     W filter(boolean condition, Predicate<? super T> predicate);
 
+    /**
+     * 按条件描述过滤
+     *
+     * @param c 条件描述
+     */
+    default W filter(boolean condition, Condition<T> c) {
+        return filter(condition, (Predicate<? super T>) c);
+    }
+
     /**
      * 过滤
      *
@@ -28,7 +37,7 @@ public interface ConditionCompare<T, W> {
      * @param predicate 判断函数
      */
     default <V> W filter(boolean condition, Function<? super T, ? extends V> fun, Predicate<? super V> predicate) {
-        return filter(condition, e -> predicate.test(Any.of(e).get(fun)));
+        return filter(condition, Condition.of(fun, Condition.Operator.TEST, null, null, predicate));
     }
 
     /**
@@ -38,7 +47,7 @@ public interface ConditionCompare<T, W> {
      * @param value 值
      */
     default <V> W eq(boolean condition, Function<? super T, ? extends V> fun, V value) {
-        return filter(condition, e -> Objects.equals(value, Any.of(e).get(fun)));
+        return filter(condition, Condition.of(fun, Condition.Operator.EQ, value, null, v -> Objects.equals(value, v)));
     }
 
 
@@ -49,7 +58,10 @@ public interface ConditionCompare<T, W> {
      * @param values 值
      */
     default <V> W in(boolean condition, Function<? super T, ? extends V> fun, Collection<? extends V> values) {
-        return filter(condition, fun, Any.of(values).orElse(new ArrayList<>())::contains);
+        if (!condition) {
+            return filter(false, e -> true);
+        }
+        return filter(true, Condition.of(fun, Condition.Operator.IN, values, null, Membership.of(values)));
     }
 
     /**
@@ -60,7 +72,7 @@ public interface ConditionCompare<T, W> {
      */
     @SuppressWarnings("unchecked")
     default <V> W in(boolean condition, Function<? super T, ? extends V> fun, V... values) {
-        return in(condition, fun, Any.of(values).map(Stream::of).orElse(Stream.empty()).collect(Collectors.toSet()));
+        return in(condition, fun, Any.of(values).map(Arrays::asList).orElse(Collections.emptyList()));
     }
 
     /**
@@ -69,7 +81,10 @@ public interface ConditionCompare<T, W> {
      * @param c c
      */
     default W in(boolean condition, Collection<? extends T> c) {
-        return filter(condition, Any.of(c).orElse(new ArrayList<>())::contains);
+        if (!condition) {
+            return filter(false, e -> true);
+        }
+        return filter(true, Condition.<T, T>of(null, Condition.Operator.IN, c, null, Membership.of(c)));
     }
 
     /**
@@ -79,7 +94,7 @@ public interface ConditionCompare<T, W> {
      */
     @SuppressWarnings("all")
     default W in(boolean condition, T... values) {
-        return in(condition, Any.of(values).map(Stream::of).orElse(Stream.empty()).collect(Collectors.toSet()));
+        return in(condition, Any.of(values).map(Arrays::asList).orElse(Collections.emptyList()));
     }
 
     /**
@@ -88,7 +103,10 @@ public interface ConditionCompare<T, W> {
      * @param c c
      */
     default W notIn(boolean condition, Collection<? extends T> c) {
-        return filter(condition, e -> !Any.of(c).orElse(new ArrayList<>()).contains(e));
+        if (!condition) {
+            return filter(false, e -> true);
+        }
+        return filter(true, Condition.<T, T>of(null, Condition.Operator.NOT_IN, c, null, Membership.of(c).negate()));
     }
 
     /**
@@ -98,7 +116,7 @@ public interface ConditionCompare<T, W> {
      */
     @SuppressWarnings("all")
     default W notIn(boolean condition, T... values) {
-        return notIn(condition, Any.of(values).map(Stream::of).orElse(Stream.empty()).collect(Collectors.toSet()));
+        return notIn(condition, Any.of(values).map(Arrays::asList).orElse(Collections.emptyList()));
     }
 
     /**
@@ -108,7 +126,10 @@ public interface ConditionCompare<T, W> {
      * @param values 值
      */
     default <V> W notIn(boolean condition, Function<? super T, ? extends V> fun, Collection<? extends V> values) {
-        return filter(condition, fun, v -> !Any.of(values).orElse(new ArrayList<>()).contains(v));
+        if (!condition) {
+            return filter(false, e -> true);
+        }
+        return filter(true, Condition.of(fun, Condition.Operator.NOT_IN, values, null, Membership.of(values).negate()));
     }
 
     /**
@@ -119,7 +140,7 @@ public interface ConditionCompare<T, W> {
      */
     @SuppressWarnings("unchecked")
     default <V> W notIn(boolean condition, Function<? super T, ? extends V> fun, V... values) {
-        return notIn(condition, fun, Any.of(values).map(Stream::of).orElse(Stream.empty()).collect(Collectors.toSet()));
+        return notIn(condition, fun, Any.of(values).map(Arrays::asList).orElse(Collections.emptyList()));
     }
 
     /**
@@ -199,13 +220,18 @@ public interface ConditionCompare<T, W> {
      */
     default <N extends Comparable<? super N>> W lt(boolean condition, Function<? super T, ? extends N> fun, N value) {
         Objects.requireNonNull(value);
-        return filter(condition, e -> {
-            N v = Any.of(e).get(fun);
-            if (Objects.isNull(v)) {
-                return false;
-            }
-            return v.compareTo(value) < 0;
-        });
+        return filter(condition, Condition.of(fun, Condition.Operator.LT, value, null, v -> Objects.nonNull(v) && v.compareTo(value) < 0));
+    }
+
+    /**
+     * 小于
+     * 可序列化的方法引用会被识别为同一属性，同一属性的区间条件可合并
+     *
+     * @param fun   属性
+     * @param value 值
+     */
+    default <N extends Comparable<? super N>> W lt(boolean condition, Function1<? super T, ? extends N> fun, N value) {
+        return lt(condition, (Function<? super T, ? extends N>) fun, value);
     }
 
     /**
@@ -216,13 +242,18 @@ public interface ConditionCompare<T, W> {
      */
     default <N extends Comparable<? super N>> W le(boolean condition, Function<? super T, ? extends N> fun, N value) {
         Objects.requireNonNull(value);
-        return filter(condition, e -> {
-            N v = Any.of(e).get(fun);
-            if (Objects.isNull(v)) {
-                return false;
-            }
-            return v.compareTo(value) <= 0;
-        });
+        return filter(condition, Condition.of(fun, Condition.Operator.LE, value, null, v -> Objects.nonNull(v) && v.compareTo(value) <= 0));
+    }
+
+    /**
+     * 小于等于
+     * 可序列化的方法引用会被识别为同一属性，同一属性的区间条件可合并
+     *
+     * @param fun   属性
+     * @param value 值
+     */
+    default <N extends Comparable<? super N>> W le(boolean condition, Function1<? super T, ? extends N> fun, N value) {
+        return le(condition, (Function<? super T, ? extends N>) fun, value);
     }
 
     /**
@@ -233,13 +264,18 @@ public interface ConditionCompare<T, W> {
      */
     default <N extends Comparable<? super N>> W gt(boolean condition, Function<? super T, ? extends N> fun, N value) {
         Objects.requireNonNull(value);
-        return filter(condition, e -> {
-            N v = Any.of(e).get(fun);
-            if (Objects.isNull(v)) {
-                return false;
-            }
-            return v.compareTo(value) > 0;
-        });
+        return filter(condition, Condition.of(fun, Condition.Operator.GT, value, null, v -> Objects.nonNull(v) && v.compareTo(value) > 0));
+    }
+
+    /**
+     * 大于
+     * 可序列化的方法引用会被识别为同一属性，同一属性的区间条件可合并
+     *
+     * @param fun   属性
+     * @param value 值
+     */
+    default <N extends Comparable<? super N>> W gt(boolean condition, Function1<? super T, ? extends N> fun, N value) {
+        return gt(condition, (Function<? super T, ? extends N>) fun, value);
     }
 
     /**
@@ -250,13 +286,18 @@ public interface ConditionCompare<T, W> {
      */
     default <N extends Comparable<? super N>> W ge(boolean condition, Function<? super T, ? extends N> fun, N value) {
         Objects.requireNonNull(value);
-        return filter(condition, e -> {
-            N v = Any.of(e).get(fun);
-            if (Objects.isNull(v)) {
-                return false;
-            }
-            return v.compareTo(value) >= 0;
-        });
+        return filter(condition, Condition.of(fun, Condition.Operator.GE, value, null, v -> Objects.nonNull(v) && v.compareTo(value) >= 0));
+    }
+
+    /**
+     * 大于等于
+     * 可序列化的方法引用会被识别为同一属性，同一属性的区间条件可合并
+     *
+     * @param fun   属性
+     * @param value 值
+     */
+    default <N extends Comparable<? super N>> W ge(boolean condition, Function1<? super T, ? extends N> fun, N value) {
+        return ge(condition, (Function<? super T, ? extends N>) fun, value);
     }
 
     /**
@@ -271,26 +312,21 @@ public interface ConditionCompare<T, W> {
         if (!condition || EmptyUtil.isAllEmpty(leftValue, rightValue)) {
             return filter(true, e -> true);
         }
-        Predicate<T> predicate = e -> true;
-        if (Objects.nonNull(leftValue)) {
-            predicate = predicate.and(e -> {
-                N v = Any.of(e).get(fun);
-                if (Objects.isNull(v)) {
-                    return false;
-                }
-                return v.compareTo(leftValue) >= 0;
-            });
-        }
-        if (Objects.nonNull(rightValue)) {
-            predicate = predicate.and(e -> {
-                N v = Any.of(e).get(fun);
-                if (Objects.isNull(v)) {
-                    return false;
-                }
-                return v.compareTo(rightValue) <= 0;
-            });
-        }
-        return filter(true, predicate);
+        return filter(true, Condition.of(fun, Condition.Operator.BETWEEN, leftValue, rightValue, v -> Objects.nonNull(v)
+                && (Objects.isNull(leftValue) || v.compareTo(leftValue) >= 0)
+                && (Objects.isNull(rightValue) || v.compareTo(rightValue) <= 0)));
+    }
+
+    /**
+     * 区间
+     * 可序列化的方法引用会被识别为同一属性，同一属性的区间条件可合并
+     *
+     * @param fun        属性
+     * @param leftValue  左值
+     * @param rightValue 右值
+     */
+    default <N extends Comparable<? super N>> W between(boolean condition, Function1<? super T, ? extends N> fun, N leftValue, N rightValue) {
+        return between(condition, (Function<? super T, ? extends N>) fun, leftValue, rightValue);
     }
 
     /**
@@ -300,8 +336,7 @@ public interface ConditionCompare<T, W> {
      * @param value 值
      */
     default W rightLike(boolean condition, Function<? super T, String> fun, String value) {
-        return filter(condition, e -> {
-            String str = Any.of(e).get(fun);
+        return filter(condition, Condition.of(fun, Condition.Operator.RIGHT_LIKE, value, null, str -> {
             if (Objects.isNull(str)) {
                 return Objects.isNull(value);
             }
@@ -309,12 +344,11 @@ public interface ConditionCompare<T, W> {
                 return false;
             }
             return str.startsWith(value);
-        });
+        }));
     }
 
     default W like(boolean condition, Function<? super T, String> fun, String value) {
-        return filter(condition, e -> {
-            String str = Any.of(e).get(fun);
+        return filter(condition, Condition.of(fun, Condition.Operator.LIKE, value, null, str -> {
             if (Objects.isNull(str)) {
                 return Objects.isNull(value);
             }
@@ -322,6 +356,6 @@ public interface ConditionCompare<T, W> {
                 return false;
             }
             return str.contains(value);
-        });
+        }));
     }
 }
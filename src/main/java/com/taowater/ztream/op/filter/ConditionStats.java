@@ -0,0 +1,103 @@
+package com.taowater.ztream.op.filter;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 条件的采样统计
+ *
+ * @author zhu56
+ */
+@Getter
+public class ConditionStats {
+
+    /**
+     * 所在的“且”条件组
+     */
+    private final int group;
+    /**
+     * 在组内声明的顺序
+     */
+    private final int index;
+    /**
+     * 条件描述
+     */
+    private final String condition;
+    /**
+     * 重排后在组内的执行顺序，未重排时为-1
+     */
+    private volatile int position = -1;
+
+    @Getter(AccessLevel.NONE)
+    private final LongAdder evaluated = new LongAdder();
+    @Getter(AccessLevel.NONE)
+    private final LongAdder passed = new LongAdder();
+    @Getter(AccessLevel.NONE)
+    private final LongAdder nanos = new LongAdder();
+
+    ConditionStats(int group, int index, String condition) {
+        this.group = group;
+        this.index = index;
+        this.condition = condition;
+    }
+
+    void record(boolean pass, long costNanos) {
+        evaluated.increment();
+        if (pass) {
+            passed.increment();
+        }
+        nanos.add(costNanos);
+    }
+
+    void setPosition(int position) {
+        this.position = position;
+    }
+
+    /**
+     * 采样中被执行的次数
+     */
+    public long getEvaluated() {
+        return evaluated.sum();
+    }
+
+    /**
+     * 采样中通过的次数
+     */
+    public long getPassed() {
+        return passed.sum();
+    }
+
+    /**
+     * 通过率
+     */
+    public double getPassRate() {
+        long n = getEvaluated();
+        return n == 0 ? 1 : (double) getPassed() / n;
+    }
+
+    /**
+     * 平均耗时（纳秒）
+     */
+    public double getAvgNanos() {
+        long n = getEvaluated();
+        return n == 0 ? 0 : (double) nanos.sum() / n;
+    }
+
+    /**
+     * 排序依据，越小越先执行，未被执行过的排在最后
+     */
+    double rank() {
+        if (getEvaluated() == 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        // 耗时至少按1纳秒计，使通过率相同的条件仍按耗时区分，全部通过的条件排在后面
+        return Math.max(1, getAvgNanos()) / Math.max(1e-9, 1 - getPassRate());
+    }
+
+    @Override
+    public String toString() {
+        return condition + " {evaluated=" + getEvaluated() + ", passRate=" + getPassRate() + ", avgNanos=" + getAvgNanos() + ", position=" + position + "}";
+    }
+}
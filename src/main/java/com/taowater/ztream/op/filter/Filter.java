@@ -38,7 +38,17 @@ public interface Filter<T, S extends IZtream<T, S>> extends IZtream<T, S>, Compa
     default S query(Consumer<Wrapper<T>> consumer) {
         Wrapper<T> wrapper = new Wrapper<>();
         consumer.accept(wrapper);
-        return ztream(filter(e -> e, wrapper.getCondition()));
+        return query(wrapper);
+    }
+
+    /**
+     * 按条件过滤，可在执行后通过{@link Wrapper#getStatistics()}查看自适应重排的统计
+     *
+     * @param wrapper 条件
+     * @return {@link S }
+     */
+    default S query(Wrapper<T> wrapper) {
+        return filter(wrapper.getCondition());
     }
 
     /**
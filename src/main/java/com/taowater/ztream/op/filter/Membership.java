@@ -0,0 +1,86 @@
+package com.taowater.ztream.op.filter;
+
+import com.taowater.ztream.assist.PrimitiveSets;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.function.Predicate;
+
+/**
+ * 成员判断，构建一次查找结构供每个元素使用
+ * 少量整数用有序数组二分查找，较多整数用基本类型集合，其余用{@link HashSet}
+ *
+ * @author zhu56
+ */
+final class Membership {
+
+    /**
+     * 不超过此个数的整数用有序数组
+     */
+    private static final int SMALL_SIZE = 16;
+
+    private Membership() {
+    }
+
+    /**
+     * 构建成员判断
+     *
+     * @param values 值集合，为null时视为空集合
+     * @return 判断值是否在集合中
+     */
+    static Predicate<Object> of(Collection<?> values) {
+        if (Objects.isNull(values) || values.isEmpty()) {
+            return v -> false;
+        }
+        // 带比较器的有序集合按比较器判断相等，沿用原集合
+        if (values instanceof SortedSet && Objects.nonNull(((SortedSet<?>) values).comparator())) {
+            return values::contains;
+        }
+        boolean hasNull = false;
+        Class<?> type = null;
+        for (Object value : values) {
+            if (Objects.isNull(value)) {
+                hasNull = true;
+            } else if (Objects.isNull(type)) {
+                type = value.getClass();
+            } else if (type != value.getClass()) {
+                type = Object.class;
+            }
+        }
+        Predicate<Object> lookup;
+        if (type == Integer.class) {
+            lookup = ints(values);
+        } else if (type == Long.class) {
+            lookup = longs(values);
+        } else {
+            Set<Object> set = new HashSet<>(values);
+            return set::contains;
+        }
+        if (hasNull) {
+            return v -> Objects.isNull(v) || lookup.test(v);
+        }
+        return lookup;
+    }
+
+    private static Predicate<Object> ints(Collection<?> values) {
+        int[] array = values.stream().filter(Objects::nonNull).mapToInt(v -> (Integer) v).distinct().sorted().toArray();
+        if (array.length <= SMALL_SIZE) {
+            return v -> v instanceof Integer && Arrays.binarySearch(array, (Integer) v) >= 0;
+        }
+        PrimitiveSets.IntSet set = PrimitiveSets.IntSet.of(array);
+        return v -> v instanceof Integer && set.contains((Integer) v);
+    }
+
+    private static Predicate<Object> longs(Collection<?> values) {
+        long[] array = values.stream().filter(Objects::nonNull).mapToLong(v -> (Long) v).distinct().sorted().toArray();
+        if (array.length <= SMALL_SIZE) {
+            return v -> v instanceof Long && Arrays.binarySearch(array, (Long) v) >= 0;
+        }
+        PrimitiveSets.LongSet set = PrimitiveSets.LongSet.of(array);
+        return v -> v instanceof Long && set.contains((Long) v);
+    }
+}
@@ -0,0 +1,482 @@
+package com.taowater.ztream.op.filter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * 条件的执行计划
+ * 多次用到的属性每个元素只取一次值，同一属性连续“且”的区间条件合并为一个区间，且/或按顺序短路
+ * 自适应时对连续“且”的条件按采样到的通过率和耗时重排
+ *
+ * @author zhu56
+ */
+@SuppressWarnings({"unchecked", "rawtypes"})
+class QueryPlan<T> implements Predicate<T> {
+
+    /**
+     * 属性值尚未提取
+     */
+    private static final Object UNSET = new Object();
+
+    private final Group<T> root;
+    /**
+     * 需要缓存值的属性个数
+     */
+    private final int slotCount;
+    /**
+     * 自适应采样的元素个数，不大于0时不重排
+     */
+    private final int sampleSize;
+    /**
+     * 各属性被条件用到的次数
+     */
+    private final Map<Object, Integer> counts = new HashMap<>();
+    /**
+     * 自适应重排的各组“且”条件
+     */
+    private final List<Adaptive<T>> adaptives = new ArrayList<>();
+
+    QueryPlan(List<Wrapper.Node<T>> nodes) {
+        this(nodes, 0);
+    }
+
+    QueryPlan(List<Wrapper.Node<T>> nodes, int sampleSize) {
+        this.sampleSize = sampleSize;
+        Group<T> group = compile(nodes);
+        Map<Object, Integer> slots = new HashMap<>();
+        counts.forEach((key, count) -> {
+            if (count > 1) {
+                slots.put(key, slots.size());
+            }
+        });
+        group.assignSlots(slots);
+        this.root = group;
+        this.slotCount = slots.size();
+    }
+
+    @Override
+    public boolean test(T e) {
+        Object[] values = null;
+        if (slotCount > 0) {
+            values = new Object[slotCount];
+            Arrays.fill(values, UNSET);
+        }
+        return root.test(e, values);
+    }
+
+    /**
+     * 各组自适应重排条件的统计，按组及当前执行顺序排列
+     */
+    List<ConditionStats> statistics() {
+        List<ConditionStats> list = new ArrayList<>();
+        for (Adaptive<T> adaptive : adaptives) {
+            for (int i : adaptive.currentOrder()) {
+                list.add(adaptive.stats[i]);
+            }
+        }
+        return list;
+    }
+
+    /**
+     * 编译一组节点，连续“且”的区间条件按属性合并
+     */
+    private Group<T> compile(List<Wrapper.Node<T>> nodes) {
+        List<Step<T>> steps = new ArrayList<>();
+        int i = 0;
+        while (i < nodes.size()) {
+            Wrapper.Node<T> node = nodes.get(i);
+            if (node.or) {
+                steps.add(new Step<>(true, evaluator(node)));
+                i++;
+                continue;
+            }
+            int end = i;
+            while (end < nodes.size() && !nodes.get(end).or) {
+                end++;
+            }
+            List<Evaluator<T>> evaluators = conjunction(nodes.subList(i, end));
+            if (sampleSize > 0 && evaluators.size() > 1) {
+                Adaptive<T> adaptive = new Adaptive<>(evaluators, sampleSize, adaptives.size());
+                adaptives.add(adaptive);
+                steps.add(new Step<>(false, adaptive));
+            } else {
+                for (Evaluator<T> evaluator : evaluators) {
+                    steps.add(new Step<>(false, evaluator));
+                }
+            }
+            i = end;
+        }
+        return new Group<>(steps);
+    }
+
+    private Evaluator<T> evaluator(Wrapper.Node<T> node) {
+        if (Objects.nonNull(node.group)) {
+            return compile(node.group.getNodes());
+        }
+        return leaf(node.condition);
+    }
+
+    private Leaf<T> leaf(Condition<T> condition) {
+        Object key = Objects.isNull(condition.getFun()) ? null : condition.propertyKey();
+        if (Objects.nonNull(key)) {
+            counts.merge(key, 1, Integer::sum);
+        }
+        return new Leaf<>(condition, key, condition.getValuePredicate());
+    }
+
+    /**
+     * 连续的“且”，同一属性的区间条件合并后放在该属性首个区间条件的位置
+     */
+    private List<Evaluator<T>> conjunction(List<Wrapper.Node<T>> nodes) {
+        Map<Object, Range> ranges = new LinkedHashMap<>();
+        Map<Object, Condition<T>> firsts = new HashMap<>();
+        List<Object> order = new ArrayList<>();
+        for (Wrapper.Node<T> node : nodes) {
+            Condition<T> condition = node.condition;
+            if (Objects.isNull(condition) || !condition.isRange()) {
+                order.add(node);
+                continue;
+            }
+            Object key = condition.propertyKey();
+            Range range = ranges.get(key);
+            if (Objects.isNull(range)) {
+                ranges.put(key, new Range(condition));
+                firsts.put(key, condition);
+                order.add(key);
+            } else if (!range.merge(condition)) {
+                order.add(node);
+            }
+        }
+        List<Evaluator<T>> evaluators = new ArrayList<>();
+        for (Object item : order) {
+            if (item instanceof Wrapper.Node) {
+                evaluators.add(evaluator((Wrapper.Node<T>) item));
+                continue;
+            }
+            Range range = ranges.get(item);
+            Condition<T> first = firsts.get(item);
+            evaluators.add(range.merged ? new Leaf<>(first, null, range).withKey(item, counts) : leaf(first));
+        }
+        return evaluators;
+    }
+
+    /**
+     * 求值
+     */
+    interface Evaluator<T> {
+        boolean test(T e, Object[] values);
+
+        void assignSlots(Map<Object, Integer> slots);
+
+        /**
+         * 描述
+         */
+        String describe();
+    }
+
+    private static class Step<T> {
+        final boolean or;
+        final Evaluator<T> evaluator;
+
+        Step(boolean or, Evaluator<T> evaluator) {
+            this.or = or;
+            this.evaluator = evaluator;
+        }
+    }
+
+    /**
+     * 按顺序左结合的且/或，与逐个{@link Predicate#and}/{@link Predicate#or}一致
+     */
+    private static class Group<T> implements Evaluator<T> {
+        private final List<Step<T>> steps;
+
+        Group(List<Step<T>> steps) {
+            this.steps = steps;
+        }
+
+        @Override
+        public boolean test(T e, Object[] values) {
+            boolean result = true;
+            for (Step<T> step : steps) {
+                if (step.or) {
+                    result = result || step.evaluator.test(e, values);
+                } else {
+                    result = result && step.evaluator.test(e, values);
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public void assignSlots(Map<Object, Integer> slots) {
+            steps.forEach(s -> s.evaluator.assignSlots(slots));
+        }
+
+        @Override
+        public String describe() {
+            StringBuilder sb = new StringBuilder("(");
+            for (int i = 0; i < steps.size(); i++) {
+                if (i > 0) {
+                    sb.append(steps.get(i).or ? " OR " : " AND ");
+                }
+                sb.append(steps.get(i).evaluator.describe());
+            }
+            return sb.append(")").toString();
+        }
+    }
+
+    /**
+     * 自适应重排的一组“且”条件
+     * 前若干个元素按原顺序短路执行并记录各条件的通过率和耗时，之后按 耗时 / (1 - 通过率) 从小到大执行
+     */
+    private static class Adaptive<T> implements Evaluator<T> {
+        private final List<Evaluator<T>> evaluators;
+        private final ConditionStats[] stats;
+        private final int sampleSize;
+        private final AtomicLong sampled = new AtomicLong();
+        private volatile int[] order;
+
+        Adaptive(List<Evaluator<T>> evaluators, int sampleSize, int group) {
+            this.evaluators = evaluators;
+            this.sampleSize = sampleSize;
+            this.stats = new ConditionStats[evaluators.size()];
+            for (int i = 0; i < stats.length; i++) {
+                stats[i] = new ConditionStats(group, i, evaluators.get(i).describe());
+            }
+        }
+
+        @Override
+        public boolean test(T e, Object[] values) {
+            int[] o = order;
+            if (Objects.nonNull(o)) {
+                for (int i : o) {
+                    if (!evaluators.get(i).test(e, values)) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+            long n = sampled.incrementAndGet();
+            if (n > sampleSize) {
+                learn();
+                return test(e, values);
+            }
+            boolean result = true;
+            for (int i = 0; i < stats.length && result; i++) {
+                long start = System.nanoTime();
+                result = evaluators.get(i).test(e, values);
+                stats[i].record(result, System.nanoTime() - start);
+            }
+            if (n == sampleSize) {
+                learn();
+            }
+            return result;
+        }
+
+        private synchronized void learn() {
+            if (Objects.nonNull(order)) {
+                return;
+            }
+            Integer[] sorted = new Integer[stats.length];
+            for (int i = 0; i < sorted.length; i++) {
+                sorted[i] = i;
+            }
+            // 稳定排序，未被执行到的条件保持原顺序排在最后
+            Arrays.sort(sorted, Comparator.comparingDouble(i -> stats[i].rank()));
+            int[] learned = new int[sorted.length];
+            for (int i = 0; i < learned.length; i++) {
+                learned[i] = sorted[i];
+                stats[sorted[i]].setPosition(i);
+            }
+            order = learned;
+        }
+
+        int[] currentOrder() {
+            int[] o = order;
+            if (Objects.nonNull(o)) {
+                return o;
+            }
+            int[] declared = new int[stats.length];
+            for (int i = 0; i < declared.length; i++) {
+                declared[i] = i;
+            }
+            return declared;
+        }
+
+        @Override
+        public void assignSlots(Map<Object, Integer> slots) {
+            evaluators.forEach(ev -> ev.assignSlots(slots));
+        }
+
+        @Override
+        public String describe() {
+            StringBuilder sb = new StringBuilder("(");
+            int[] o = currentOrder();
+            for (int i = 0; i < o.length; i++) {
+                if (i > 0) {
+                    sb.append(" AND ");
+                }
+                sb.append(evaluators.get(o[i]).describe());
+            }
+            return sb.append(")").toString();
+        }
+    }
+
+    /**
+     * 单个条件
+     */
+    private static class Leaf<T> implements Evaluator<T> {
+        private final Condition<T> condition;
+        private final Predicate<Object> predicate;
+        private Object key;
+        private int slot = -1;
+
+        Leaf(Condition<T> condition, Object key, Predicate<Object> predicate) {
+            this.condition = condition;
+            this.key = key;
+            this.predicate = predicate;
+        }
+
+        Leaf<T> withKey(Object key, Map<Object, Integer> counts) {
+            this.key = key;
+            counts.merge(key, 1, Integer::sum);
+            return this;
+        }
+
+        @Override
+        public boolean test(T e, Object[] values) {
+            if (slot < 0) {
+                return predicate.test(condition.value(e));
+            }
+            Object value = values[slot];
+            if (value == UNSET) {
+                value = condition.value(e);
+                values[slot] = value;
+            }
+            return predicate.test(value);
+        }
+
+        @Override
+        public void assignSlots(Map<Object, Integer> slots) {
+            if (Objects.nonNull(key)) {
+                slot = slots.getOrDefault(key, -1);
+            }
+        }
+
+        @Override
+        public String describe() {
+            return predicate instanceof Range ? "property " + predicate : condition.toString();
+        }
+    }
+
+    /**
+     * 合并后的区间
+     */
+    private static class Range implements Predicate<Object> {
+        private Comparable lower;
+        private boolean lowerInclusive;
+        private Comparable upper;
+        private boolean upperInclusive;
+        private boolean merged;
+
+        Range(Condition<?> condition) {
+            apply(condition);
+        }
+
+        /**
+         * 合并一个区间条件，边界无法相互比较时不合并
+         */
+        boolean merge(Condition<?> condition) {
+            Comparable lower0 = lower;
+            boolean lowerInclusive0 = lowerInclusive;
+            Comparable upper0 = upper;
+            boolean upperInclusive0 = upperInclusive;
+            try {
+                apply(condition);
+                merged = true;
+                return true;
+            } catch (ClassCastException e) {
+                lower = lower0;
+                lowerInclusive = lowerInclusive0;
+                upper = upper0;
+                upperInclusive = upperInclusive0;
+                return false;
+            }
+        }
+
+        private void apply(Condition<?> condition) {
+            Object operand = condition.getOperand();
+            switch (condition.getOperator()) {
+                case GT:
+                    lower(operand, false);
+                    break;
+                case GE:
+                    lower(operand, true);
+                    break;
+                case LT:
+                    upper(operand, false);
+                    break;
+                case LE:
+                    upper(operand, true);
+                    break;
+                default:
+                    lower(operand, true);
+                    upper(condition.getOperand2(), true);
+            }
+        }
+
+        private void lower(Object value, boolean inclusive) {
+            if (Objects.isNull(value)) {
+                return;
+            }
+            int c = Objects.isNull(lower) ? 1 : ((Comparable) value).compareTo(lower);
+            if (c > 0 || (c == 0 && !inclusive)) {
+                lower = (Comparable) value;
+                lowerInclusive = inclusive;
+            }
+        }
+
+        private void upper(Object value, boolean inclusive) {
+            if (Objects.isNull(value)) {
+                return;
+            }
+            int c = Objects.isNull(upper) ? -1 : ((Comparable) value).compareTo(upper);
+            if (c < 0 || (c == 0 && !inclusive)) {
+                upper = (Comparable) value;
+                upperInclusive = inclusive;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return (lowerInclusive ? "[" : "(") + lower + ", " + upper + (upperInclusive ? "]" : ")");
+        }
+
+        @Override
+        public boolean test(Object value) {
+            if (Objects.isNull(value)) {
+                return false;
+            }
+            Comparable v = (Comparable) value;
+            if (Objects.nonNull(lower)) {
+                int c = v.compareTo(lower);
+                if (c < 0 || (c == 0 && !lowerInclusive)) {
+                    return false;
+                }
+            }
+            if (Objects.nonNull(upper)) {
+                int c = v.compareTo(upper);
+                return c < 0 || (c == 0 && upperInclusive);
+            }
+            return true;
+        }
+    }
+}
@@ -1,26 +1,113 @@
 package com.taowater.ztream.op.filter;
 
 
-import lombok.Getter;
-
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 
 /**
  * 条件
+ * 按顺序记录各条件描述，首次使用时编译为{@link QueryPlan}
  *
  * @author zhu56
  */
-@Getter
 @SuppressWarnings("unused")
 public class Wrapper<T> implements Compare<T, Wrapper<T>> {
 
-    private Predicate<T> condition = o -> true;
+    /**
+     * 自适应重排默认采样的元素个数
+     */
+    private static final int DEFAULT_SAMPLE_SIZE = 1000;
+
+    private final List<Node<T>> nodes = new ArrayList<>();
+
+    /**
+     * 自适应采样的元素个数，为0时不重排
+     */
+    private int sampleSize;
+
+    private QueryPlan<T> condition;
+
+    /**
+     * 获取编译后的条件
+     *
+     * @return {@link Predicate}<{@link T}>
+     */
+    public Predicate<T> getCondition() {
+        if (Objects.isNull(condition)) {
+            condition = new QueryPlan<>(nodes, sampleSize);
+        }
+        return condition;
+    }
+
+    /**
+     * 开启自适应重排
+     *
+     * @return {@link Wrapper}<{@link T}>
+     * @see #adaptive(int)
+     */
+    public Wrapper<T> adaptive() {
+        return adaptive(DEFAULT_SAMPLE_SIZE);
+    }
+
+    /**
+     * 开启自适应重排
+     * 前sampleSize个元素按书写顺序执行并统计各条件的通过率和耗时，之后连续“且”的条件按耗时低、淘汰多的优先执行
+     * 仅适用于条件之间没有先后依赖的情况（如前一个条件保证了后一个条件不会空指针）
+     *
+     * @param sampleSize 采样的元素个数
+     * @return {@link Wrapper}<{@link T}>
+     */
+    public Wrapper<T> adaptive(int sampleSize) {
+        if (sampleSize <= 0) {
+            throw new IllegalArgumentException("sampleSize must be positive: " + sampleSize);
+        }
+        this.sampleSize = sampleSize;
+        condition = null;
+        return this;
+    }
+
+    /**
+     * 获取自适应重排的统计，按“且”条件组及当前执行顺序排列，未开启时为空
+     *
+     * @return {@link List}<{@link ConditionStats}>
+     */
+    public List<ConditionStats> getStatistics() {
+        if (Objects.isNull(condition)) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(condition.statistics());
+    }
+
+    /**
+     * 获取记录的各条件描述，不含嵌套的且/或
+     *
+     * @return {@link List}<{@link Condition}<{@link T}>>
+     */
+    public List<Condition<T>> getConditions() {
+        List<Condition<T>> conditions = new ArrayList<>();
+        for (Node<T> node : nodes) {
+            if (Objects.nonNull(node.condition)) {
+                conditions.add(node.condition);
+            }
+        }
+        return Collections.unmodifiableList(conditions);
+    }
+
+    List<Node<T>> getNodes() {
+        return nodes;
+    }
 
     @Override
+    @SuppressWarnings("unchecked")
     public Wrapper<T> filter(Predicate<? super T> predicate) {
-        this.condition = condition.and(predicate);
-        return this;
+        if (predicate instanceof Condition) {
+            return add(new Node<>(false, (Condition<T>) predicate, null));
+        }
+        return add(new Node<>(false, Condition.<T, T>of(null, Condition.Operator.TEST, null, null, predicate), null));
     }
 
     /**
@@ -29,8 +116,7 @@ public class Wrapper<T> implements Compare<T, Wrapper<T>> {
     public Wrapper<T> and(Consumer<Wrapper<T>> consumer) {
         Wrapper<T> wrapper = new Wrapper<>();
         consumer.accept(wrapper);
-        this.condition = condition.and(wrapper.condition);
-        return this;
+        return add(new Node<>(false, null, wrapper));
     }
 
     /**
@@ -40,8 +126,7 @@ public class Wrapper<T> implements Compare<T, Wrapper<T>> {
     public Wrapper<T> or(Consumer<Wrapper<T>> consumer) {
         Wrapper<T> wrapper = new Wrapper<>();
         consumer.accept(wrapper);
-        this.condition = condition.or(wrapper.condition);
-        return this;
+        return add(new Node<>(true, null, wrapper));
     }
 
     @Override
@@ -51,4 +136,36 @@ public class Wrapper<T> implements Compare<T, Wrapper<T>> {
         }
         return this;
     }
+
+    @Override
+    public Wrapper<T> filter(boolean condition, Condition<T> c) {
+        if (condition) {
+            return add(new Node<>(false, c, null));
+        }
+        return this;
+    }
+
+    private Wrapper<T> add(Node<T> node) {
+        nodes.add(node);
+        condition = null;
+        return this;
+    }
+
+    /**
+     * 节点，条件或嵌套的条件组
+     */
+    static class Node<T> {
+        /**
+         * 与之前的结果是“或”还是“且”
+         */
+        final boolean or;
+        final Condition<T> condition;
+        final Wrapper<T> group;
+
+        Node(boolean or, Condition<T> condition, Wrapper<T> group) {
+            this.or = or;
+            this.condition = condition;
+            this.group = group;
+        }
+    }
 }
@@ -0,0 +1,42 @@
+package com.taowater.ztream.op.judge;
+
+import com.taowater.ztream.assist.BloomFilter;
+import com.taowater.ztream.assist.PrimitiveSets;
+
+import java.util.function.Predicate;
+
+/**
+ * 重复检测
+ * 判断返回true表示键首次出现，并行时使用并发集合
+ *
+ * @author zhu56
+ */
+final class Duplicates {
+
+    private Duplicates() {
+    }
+
+    /**
+     * 精确检测，记录所有出现过的键
+     *
+     * @param parallel 是否并行
+     */
+    static Predicate<Object> exact(boolean parallel) {
+        if (parallel) {
+            return new PrimitiveSets.ConcurrentKeySet()::add;
+        }
+        return new PrimitiveSets.KeySet()::add;
+    }
+
+    /**
+     * 概率检测，只占用布隆过滤器的内存
+     * 未命中的键一定是首次出现；命中时按重复处理，可能误判
+     *
+     * @param expectedSize 预计元素个数
+     * @param fpp          期望误判率
+     */
+    static Predicate<Object> bloom(long expectedSize, double fpp) {
+        BloomFilter filter = new BloomFilter(expectedSize, fpp);
+        return key -> !filter.put(key);
+    }
+}
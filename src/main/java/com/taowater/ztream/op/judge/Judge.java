@@ -4,7 +4,8 @@ import com.taowater.ztream.Any;
 import com.taowater.ztream.IZtream;
 import com.taowater.ztream.assist.Functions;
 
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.Set;
 import java.util.function.BiPredicate;
 import java.util.function.Function;
@@ -20,8 +21,8 @@ public interface Judge<T, S extends IZtream<T, S>> extends IZtream<T, S> {
      * 判断元素是否重复
      */
     default boolean hadRepeat() {
-        Set<T> set = new HashSet<>();
-        return anyMatch(x -> !set.add(x));
+        Predicate<Object> first = Duplicates.exact(isParallel());
+        return anyMatch(x -> !first.test(x));
     }
 
     /**
@@ -30,8 +31,50 @@ public interface Judge<T, S extends IZtream<T, S>> extends IZtream<T, S> {
      * @param fun 属性
      */
     default <V> boolean hadRepeat(Function<? super T, ? extends V> fun) {
-        Set<V> set = new HashSet<>();
-        return anyMatch(x -> !set.add(Any.of(x).get(fun)));
+        Predicate<Object> first = Duplicates.exact(isParallel());
+        return anyMatch(x -> !first.test(Any.of(x).get(fun)));
+    }
+
+    /**
+     * 判断元素某属性是否可能重复
+     * 只占用布隆过滤器的内存，返回false时一定不重复，返回true时可能误判
+     *
+     * @param fun          属性
+     * @param expectedSize 预计元素个数
+     * @param fpp          期望误判率
+     */
+    default <V> boolean hadRepeat(Function<? super T, ? extends V> fun, long expectedSize, double fpp) {
+        Predicate<Object> first = Duplicates.bloom(expectedSize, fpp);
+        return anyMatch(x -> !first.test(Any.of(x).get(fun)));
+    }
+
+    /**
+     * 找出重复的属性值
+     *
+     * @param fun 属性
+     * @return 出现多次的属性值，串行时按首次重复的顺序排列
+     */
+    default <V> Set<V> findDuplicates(Function<? super T, ? extends V> fun) {
+        boolean parallel = isParallel();
+        Predicate<Object> first = Duplicates.exact(parallel);
+        Set<V> duplicates = parallel ? Collections.synchronizedSet(new LinkedHashSet<>()) : new LinkedHashSet<>();
+        forEach(x -> {
+            V value = Any.of(x).get(fun);
+            if (!first.test(value)) {
+                duplicates.add(value);
+            }
+        });
+        return duplicates;
+    }
+
+    /**
+     * 属性值重复的元素个数，即元素总数减去不同属性值的个数
+     *
+     * @param fun 属性
+     */
+    default <V> long duplicateCount(Function<? super T, ? extends V> fun) {
+        Predicate<Object> first = Duplicates.exact(isParallel());
+        return filter(x -> !first.test(Any.of(x).get(fun))).count();
     }
 
     /**
@@ -93,7 +136,8 @@ public interface Judge<T, S extends IZtream<T, S>> extends IZtream<T, S> {
      * @return 判断结果
      */
     default boolean isNotEmpty() {
-        return iterator().hasNext();
+        return spliterator().tryAdvance(e -> {
+        });
     }
 
 }
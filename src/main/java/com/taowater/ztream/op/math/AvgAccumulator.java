@@ -0,0 +1,52 @@
+package com.taowater.ztream.op.math;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * 平均值累加器
+ * 在累加器的基础上记录个数，单次遍历即可得出平均值
+ *
+ * @author zhu56
+ */
+public class AvgAccumulator extends SumAccumulator {
+
+    private long count;
+
+    /**
+     * 计数加一
+     */
+    public void count() {
+        count++;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * 合并另一个累加器
+     *
+     * @param other 其他累加器
+     * @return 当前累加器
+     */
+    public AvgAccumulator merge(AvgAccumulator other) {
+        super.merge(other);
+        count += other.count;
+        return this;
+    }
+
+    /**
+     * 平均值
+     *
+     * @param scale        小数位数
+     * @param roundingMode 舍入方式
+     * @return 平均值，无可累加的值或个数为0时为null
+     */
+    public BigDecimal avg(int scale, RoundingMode roundingMode) {
+        if (isEmpty() || count == 0) {
+            return null;
+        }
+        return toBigDecimal().divide(BigDecimal.valueOf(count), scale, roundingMode);
+    }
+}
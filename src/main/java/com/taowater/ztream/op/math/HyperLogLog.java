@@ -0,0 +1,194 @@
+package com.taowater.ztream.op.math;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * HyperLogLog基数估计
+ * 固定2^precision个寄存器，可合并，可序列化为字节后在其他批次中还原合并
+ * int/long等整数键直接按数值散列，不装箱
+ *
+ * @author zhu56
+ */
+public class HyperLogLog implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final int MIN_PRECISION = 4;
+    public static final int MAX_PRECISION = 18;
+
+    private final int precision;
+    private final byte[] registers;
+
+    /**
+     * @param precision 精度，寄存器个数为2^precision，标准误差约为1.04/sqrt(2^precision)
+     */
+    public HyperLogLog(int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("precision must be in [" + MIN_PRECISION + ", " + MAX_PRECISION + "]: " + precision);
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    /**
+     * 添加值，null跳过
+     *
+     * @param value 值
+     */
+    public void add(Object value) {
+        if (Objects.isNull(value)) {
+            return;
+        }
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            addLong(((Number) value).longValue());
+        } else if (value instanceof CharSequence) {
+            addHash(hash((CharSequence) value));
+        } else {
+            addHash(mix(value.hashCode()));
+        }
+    }
+
+    public void addInt(int value) {
+        addLong(value);
+    }
+
+    public void addLong(long value) {
+        addHash(mix(value));
+    }
+
+    private void addHash(long hash) {
+        int index = (int) (hash >>> (64 - precision));
+        // 剩余位中首个1的位置，末尾补1保证有界
+        byte rank = (byte) (Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1);
+        if (registers[index] < rank) {
+            registers[index] = rank;
+        }
+    }
+
+    /**
+     * 合并另一个估计器
+     *
+     * @param other 其他估计器，精度须一致
+     * @return 当前估计器
+     */
+    public HyperLogLog merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("precision mismatch: " + precision + " vs " + other.precision);
+        }
+        for (int i = 0; i < registers.length; i++) {
+            if (registers[i] < other.registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+        return this;
+    }
+
+    /**
+     * 估计不同值的个数
+     *
+     * @return 基数估计值
+     */
+    public long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte r : registers) {
+            sum += 1.0 / (1L << r);
+            if (r == 0) {
+                zeros++;
+            }
+        }
+        double estimate = alpha(m) * m * m / sum;
+        // 小基数时改用线性计数
+        if (estimate <= 2.5 * m && zeros > 0) {
+            estimate = m * java.lang.Math.log((double) m / zeros);
+        }
+        return java.lang.Math.round(estimate);
+    }
+
+    /**
+     * 序列化寄存器状态，首字节为精度
+     *
+     * @return 字节数组
+     */
+    public byte[] toBytes() {
+        byte[] bytes = new byte[registers.length + 1];
+        bytes[0] = (byte) precision;
+        System.arraycopy(registers, 0, bytes, 1, registers.length);
+        return bytes;
+    }
+
+    /**
+     * 由{@link #toBytes()}的结果还原
+     *
+     * @param bytes 字节数组
+     * @return {@link HyperLogLog }
+     */
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        HyperLogLog hll = new HyperLogLog(bytes[0]);
+        if (bytes.length != hll.registers.length + 1) {
+            throw new IllegalArgumentException("invalid length " + bytes.length + " for precision " + bytes[0]);
+        }
+        System.arraycopy(bytes, 1, hll.registers, 0, hll.registers.length);
+        return hll;
+    }
+
+    private static double alpha(int m) {
+        switch (m) {
+            case 16:
+                return 0.673;
+            case 32:
+                return 0.697;
+            case 64:
+                return 0.709;
+            default:
+                return 0.7213 / (1 + 1.079 / m);
+        }
+    }
+
+    /**
+     * murmur3 64位混淆，对long是双射
+     */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb3f97f4a7e63L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * 字符序列的64位散列，避免32位hashCode在大基数下碰撞
+     */
+    private static long hash(CharSequence value) {
+        long h = 0x9e3779b97f4a7c15L;
+        for (int i = 0; i < value.length(); i++) {
+            h = (h ^ value.charAt(i)) * 0x100000001b3L;
+        }
+        return mix(h ^ value.length());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof HyperLogLog)) {
+            return false;
+        }
+        HyperLogLog that = (HyperLogLog) o;
+        return precision == that.precision && Arrays.equals(registers, that.registers);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * precision + Arrays.hashCode(registers);
+    }
+}
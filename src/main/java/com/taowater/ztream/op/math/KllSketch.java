@@ -0,0 +1,204 @@
+package com.taowater.ztream.op.math;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * KLL分位数草图
+ * 各层容量随层级几何递减，满时排序并随机保留一半升入上一层（权重翻倍），内存约为O(k)
+ * 可合并，排名误差约为1.65/k
+ *
+ * @author zhu56
+ */
+public class KllSketch implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int MIN_CAPACITY = 8;
+
+    private final int k;
+    /**
+     * 第h层每个值代表2^h个原始值
+     */
+    private double[][] levels = new double[1][];
+    private int[] sizes = new int[1];
+    /**
+     * 各层容量，只在新增层时重新计算
+     */
+    private int[] capacities = new int[1];
+    private long count;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+
+    /**
+     * @param k 精度参数，越大越精确，常用200
+     */
+    public KllSketch(int k) {
+        if (k < MIN_CAPACITY) {
+            throw new IllegalArgumentException("k must be at least " + MIN_CAPACITY + ": " + k);
+        }
+        this.k = k;
+        this.levels[0] = new double[k];
+        this.capacities[0] = k;
+    }
+
+    public void add(double value) {
+        if (count == 0 || value < min) {
+            min = value;
+        }
+        if (count == 0 || value > max) {
+            max = value;
+        }
+        count++;
+        append(0, value);
+        if (sizes[0] >= capacities[0]) {
+            compress();
+        }
+    }
+
+    /**
+     * 原始值个数
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * 合并另一个草图
+     *
+     * @param other 其他草图，k须一致
+     * @return 当前草图
+     */
+    public KllSketch merge(KllSketch other) {
+        if (other.k != k) {
+            throw new IllegalArgumentException("k mismatch: " + k + " vs " + other.k);
+        }
+        if (other.count == 0) {
+            return this;
+        }
+        min = count == 0 ? other.min : java.lang.Math.min(min, other.min);
+        max = count == 0 ? other.max : java.lang.Math.max(max, other.max);
+        count += other.count;
+        for (int h = 0; h < other.levels.length; h++) {
+            for (int i = 0; i < other.sizes[h]; i++) {
+                append(h, other.levels[h][i]);
+            }
+        }
+        compress();
+        return this;
+    }
+
+    /**
+     * 近似分位数
+     *
+     * @param ps 分位点，取值[0, 1]
+     * @return 各分位点对应的值，无值时为null
+     */
+    public double[] quantiles(double... ps) {
+        if (count == 0) {
+            return null;
+        }
+        // 各层复制后排序，再逐层归并为有序的(值, 权重)序列
+        double[] values = new double[0];
+        long[] weights = new long[0];
+        for (int h = 0; h < levels.length; h++) {
+            double[] level = Arrays.copyOf(levels[h], sizes[h]);
+            Arrays.sort(level);
+            double[] mergedValues = new double[values.length + level.length];
+            long[] mergedWeights = new long[mergedValues.length];
+            int a = 0;
+            int b = 0;
+            for (int m = 0; m < mergedValues.length; m++) {
+                if (b >= level.length || (a < values.length && values[a] <= level[b])) {
+                    mergedValues[m] = values[a];
+                    mergedWeights[m] = weights[a++];
+                } else {
+                    mergedValues[m] = level[b++];
+                    mergedWeights[m] = 1L << h;
+                }
+            }
+            values = mergedValues;
+            weights = mergedWeights;
+        }
+        // 转为累计权重
+        for (int m = 1; m < weights.length; m++) {
+            weights[m] += weights[m - 1];
+        }
+        long weight = weights.length == 0 ? 0 : weights[weights.length - 1];
+        double[] result = new double[ps.length];
+        for (int q = 0; q < ps.length; q++) {
+            double p = QuantileBuffer.check(ps[q]);
+            if (p == 0) {
+                result[q] = min;
+                continue;
+            }
+            if (p == 1) {
+                result[q] = max;
+                continue;
+            }
+            double target = p * weight;
+            // 首个累计权重大于target的位置
+            int lo = 0;
+            int hi = weights.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (weights[mid] > target) {
+                    hi = mid;
+                } else {
+                    lo = mid + 1;
+                }
+            }
+            result[q] = lo < values.length ? values[lo] : max;
+        }
+        return result;
+    }
+
+    private void append(int level, double value) {
+        if (level == levels.length) {
+            levels = Arrays.copyOf(levels, level + 1);
+            sizes = Arrays.copyOf(sizes, level + 1);
+            capacities = new int[level + 1];
+            for (int h = 0; h <= level; h++) {
+                capacities[h] = capacity(h);
+            }
+            levels[level] = new double[capacities[level]];
+        }
+        if (sizes[level] == levels[level].length) {
+            levels[level] = Arrays.copyOf(levels[level], sizes[level] << 1);
+        }
+        levels[level][sizes[level]++] = value;
+    }
+
+    /**
+     * 第h层的容量，最高层为k，向下每层乘2/3
+     */
+    private int capacity(int level) {
+        int depth = levels.length - 1 - level;
+        return java.lang.Math.max(MIN_CAPACITY, (int) java.lang.Math.ceil(k * java.lang.Math.pow(2.0 / 3, depth)));
+    }
+
+    /**
+     * 自下而上压缩超出容量的层
+     */
+    private void compress() {
+        for (int h = 0; h < levels.length; h++) {
+            if (sizes[h] < capacities[h]) {
+                continue;
+            }
+            double[] level = levels[h];
+            int size = sizes[h];
+            Arrays.sort(level, 0, size);
+            // 奇数个时保留最大的一个在本层
+            int keep = size & 1;
+            int offset = ThreadLocalRandom.current().nextBoolean() ? 1 : 0;
+            for (int i = offset; i < size - keep; i += 2) {
+                append(h + 1, level[i]);
+            }
+            if (keep == 1) {
+                level[0] = level[size - 1];
+            }
+            sizes[h] = keep;
+        }
+    }
+}
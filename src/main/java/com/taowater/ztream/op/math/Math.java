@@ -2,13 +2,11 @@ package com.taowater.ztream.op.math;
 
 
 import com.taowater.taol.core.function.Function1;
-import com.taowater.taol.core.util.NumberUtil;
 import com.taowater.ztream.Any;
 import com.taowater.ztream.IZtream;
 import com.taowater.ztream.assist.ExCollectors;
 import lombok.var;
 
-import java.math.BigDecimal;
 import java.util.Objects;
 
 /**
@@ -37,15 +35,8 @@ public interface Math<T, S extends IZtream<T, S>> extends IZtream<T, S> {
      * @return 和
      */
     default <N extends Number> N sum(Function1<? super T, ? extends N> fun, N defaultValue) {
-        var result = filter(Objects::nonNull)
-                .map(fun)
-                .map(NumberUtil::toBigDecimal)
-                .reduce((a, b) -> Any.of(a).map(e -> e.add(Any.of(b).orElse(BigDecimal.ZERO))).orElse(BigDecimal.ZERO))
-                .map(b -> NumberUtil.getValue(b, fun));
-        if (result.isPresent()) {
-            return result.get();
-        }
-        return defaultValue;
+        N result = collect(ExCollectors.sum(fun));
+        return Any.of(result).orElse(defaultValue);
     }
 
     /**
@@ -209,4 +200,177 @@ public interface Math<T, S extends IZtream<T, S>> extends IZtream<T, S> {
     default <N extends Number> N avg(Function1<? super T, ? extends N> fun, N defaultValue) {
         return avg(fun, defaultValue, true);
     }
+
+    /**
+     * int属性平均值，不经过BigDecimal
+     *
+     * @param fun          属性
+     * @param defaultValue 默认值
+     * @param nullCount    null是否计数
+     * @return 平均值
+     */
+    default double avgInt(Function1<? super T, ? extends Integer> fun, double defaultValue, boolean nullCount) {
+        return Any.of(collect(ExCollectors.avgInt(fun, nullCount))).orElse(defaultValue);
+    }
+
+    /**
+     * int属性平均值，不经过BigDecimal
+     *
+     * @param fun          属性
+     * @param defaultValue 默认值
+     * @return 平均值
+     */
+    default double avgInt(Function1<? super T, ? extends Integer> fun, double defaultValue) {
+        return avgInt(fun, defaultValue, true);
+    }
+
+    /**
+     * long属性平均值，不经过BigDecimal
+     *
+     * @param fun          属性
+     * @param defaultValue 默认值
+     * @param nullCount    null是否计数
+     * @return 平均值
+     */
+    default double avgLong(Function1<? super T, ? extends Long> fun, double defaultValue, boolean nullCount) {
+        return Any.of(collect(ExCollectors.avgLong(fun, nullCount))).orElse(defaultValue);
+    }
+
+    /**
+     * long属性平均值，不经过BigDecimal
+     *
+     * @param fun          属性
+     * @param defaultValue 默认值
+     * @return 平均值
+     */
+    default double avgLong(Function1<? super T, ? extends Long> fun, double defaultValue) {
+        return avgLong(fun, defaultValue, true);
+    }
+
+    /**
+     * 浮点属性平均值，不经过BigDecimal
+     *
+     * @param fun          属性
+     * @param defaultValue 默认值
+     * @param nullCount    null是否计数
+     * @return 平均值
+     */
+    default double avgDouble(Function1<? super T, ? extends Number> fun, double defaultValue, boolean nullCount) {
+        return Any.of(collect(ExCollectors.avgDouble(fun, nullCount))).orElse(defaultValue);
+    }
+
+    /**
+     * 浮点属性平均值，不经过BigDecimal
+     *
+     * @param fun          属性
+     * @param defaultValue 默认值
+     * @return 平均值
+     */
+    default double avgDouble(Function1<? super T, ? extends Number> fun, double defaultValue) {
+        return avgDouble(fun, defaultValue, true);
+    }
+
+    /**
+     * 属性不同值个数的近似值，属性值为null时不计
+     * 基于HyperLogLog，内存固定为2^precision字节，标准误差约为1.04/sqrt(2^precision)
+     *
+     * @param fun       属性
+     * @param precision 精度，取值[4, 18]
+     * @return 近似的不同值个数
+     */
+    default long approxCountDistinct(Function1<? super T, ?> fun, int precision) {
+        return collect(ExCollectors.hll(fun, precision)).estimate();
+    }
+
+    /**
+     * 属性不同值个数的近似值，精度为14（16KB，误差约0.8%）
+     *
+     * @param fun 属性
+     * @return 近似的不同值个数
+     */
+    default long approxCountDistinct(Function1<? super T, ?> fun) {
+        return approxCountDistinct(fun, 14);
+    }
+
+    /**
+     * 中位数，null不计
+     *
+     * @param fun 属性
+     * @return 中位数，无值时为null
+     */
+    default Double median(Function1<? super T, ? extends Number> fun) {
+        return percentile(fun, 0.5);
+    }
+
+    /**
+     * 分位数，null不计
+     *
+     * @param fun 属性
+     * @param p   分位点，取值[0, 1]
+     * @return 分位数，无值时为null
+     */
+    default Double percentile(Function1<? super T, ? extends Number> fun, double p) {
+        double[] result = percentiles(fun, false, p);
+        return Objects.isNull(result) ? null : result[0];
+    }
+
+    /**
+     * 多个分位数，一次遍历，null不计
+     *
+     * @param fun 属性
+     * @param ps  分位点，取值[0, 1]
+     * @return 各分位点对应的值，无值时为null
+     */
+    default double[] percentiles(Function1<? super T, ? extends Number> fun, double... ps) {
+        return percentiles(fun, false, ps);
+    }
+
+    /**
+     * 多个分位数
+     * 缓存全部值后快速选择，期望O(n)，相邻两值之间线性插值
+     *
+     * @param fun       属性
+     * @param nullCount null是否计数，计数时视为0
+     * @param ps        分位点，取值[0, 1]
+     * @return 各分位点对应的值，无值时为null
+     */
+    default double[] percentiles(Function1<? super T, ? extends Number> fun, boolean nullCount, double... ps) {
+        return collect(ExCollectors.percentiles(fun, nullCount, ps));
+    }
+
+    /**
+     * 近似分位数，null不计
+     *
+     * @param fun 属性
+     * @param p   分位点，取值[0, 1]
+     * @return 分位数，无值时为null
+     */
+    default Double approxPercentile(Function1<? super T, ? extends Number> fun, double p) {
+        double[] result = approxPercentiles(fun, 200, false, p);
+        return Objects.isNull(result) ? null : result[0];
+    }
+
+    /**
+     * 近似分位数
+     * 基于KLL草图，内存有界，适合数据量很大或并行的流
+     *
+     * @param fun       属性
+     * @param k         精度参数，排名误差约为1.65/k
+     * @param nullCount null是否计数，计数时视为0
+     * @param ps        分位点，取值[0, 1]
+     * @return 各分位点对应的值，无值时为null
+     */
+    default double[] approxPercentiles(Function1<? super T, ? extends Number> fun, int k, boolean nullCount, double... ps) {
+        return collect(ExCollectors.kll(fun, k, nullCount)).quantiles(ps);
+    }
+
+    /**
+     * 汇总统计，单次遍历得出个数、null个数、和、最值、均值、方差及标准差
+     *
+     * @param fun 属性
+     * @return {@link Summary }
+     */
+    default Summary summary(Function1<? super T, ? extends Number> fun) {
+        return collect(ExCollectors.summary(fun));
+    }
 }
@@ -0,0 +1,132 @@
+package com.taowater.ztream.op.math;
+
+import java.util.Arrays;
+
+/**
+ * 精确分位数缓冲
+ * 以double数组缓存全部值，取分位数时快速选择，期望O(n)，不整体排序
+ *
+ * @author zhu56
+ */
+public class QuantileBuffer {
+
+    private double[] values = new double[16];
+    private int size;
+
+    public void add(double value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size << 1);
+        }
+        values[size++] = value;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 合并另一个缓冲
+     *
+     * @param other 其他缓冲
+     * @return 当前缓冲
+     */
+    public QuantileBuffer merge(QuantileBuffer other) {
+        if (size + other.size > values.length) {
+            values = Arrays.copyOf(values, java.lang.Math.max(values.length << 1, size + other.size));
+        }
+        System.arraycopy(other.values, 0, values, size, other.size);
+        size += other.size;
+        return this;
+    }
+
+    /**
+     * 分位数，相邻两值之间线性插值
+     *
+     * @param ps 分位点，取值[0, 1]
+     * @return 各分位点对应的值，无值时为null
+     */
+    public double[] quantiles(double... ps) {
+        if (size == 0) {
+            return null;
+        }
+        // 按分位点从小到大选择，后一次只需在前一次位置之后查找
+        double[] sorted = new double[ps.length];
+        for (int i = 0; i < ps.length; i++) {
+            sorted[i] = check(ps[i]);
+        }
+        Arrays.sort(sorted);
+        double[] sortedResult = new double[sorted.length];
+        int lo = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            double position = sorted[i] * (size - 1);
+            int k = (int) position;
+            double v = select(lo, k);
+            lo = k;
+            if (position > k) {
+                // 插值的下一个值是k之后的最小值
+                double next = values[k + 1];
+                for (int j = k + 2; j < size; j++) {
+                    next = java.lang.Math.min(next, values[j]);
+                }
+                v += (next - v) * (position - k);
+            }
+            sortedResult[i] = v;
+        }
+        // 按原顺序取回，相同的分位点结果相同
+        double[] result = new double[ps.length];
+        for (int i = 0; i < ps.length; i++) {
+            result[i] = sortedResult[Arrays.binarySearch(sorted, ps[i])];
+        }
+        return result;
+    }
+
+    /**
+     * 在[lo, size)中选出第k小的值，选择后k左侧不大于它，右侧不小于它
+     */
+    private double select(int lo, int k) {
+        int hi = size - 1;
+        while (hi > lo) {
+            int mid = (lo + hi) >>> 1;
+            double pivot = medianOf3(values[lo], values[mid], values[hi]);
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (values[i] < pivot) {
+                    i++;
+                }
+                while (values[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    double t = values[i];
+                    values[i] = values[j];
+                    values[j] = t;
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) {
+                hi = j;
+            } else if (k >= i) {
+                lo = i;
+            } else {
+                break;
+            }
+        }
+        return values[k];
+    }
+
+    /**
+     * 校验分位点
+     */
+    static double check(double p) {
+        if (!(p >= 0 && p <= 1)) {
+            throw new IllegalArgumentException("quantile must be in [0, 1]: " + p);
+        }
+        return p;
+    }
+
+    private static double medianOf3(double a, double b, double c) {
+        return java.lang.Math.max(java.lang.Math.min(a, b), java.lang.Math.min(java.lang.Math.max(a, b), c));
+    }
+}
@@ -0,0 +1,175 @@
+package com.taowater.ztream.op.math;
+
+import com.taowater.taol.core.util.NumberUtil;
+
+import java.math.BigDecimal;
+
+/**
+ * 累加器
+ * 按首个元素的数值类型选定累加方式：整型用long累加并在溢出时转为BigDecimal，浮点用Kahan补偿求和，
+ * 其余（BigDecimal、BigInteger等）才用BigDecimal；类型混用时向精度更高的方式提升
+ *
+ * @author zhu56
+ */
+public class SumAccumulator {
+
+    private static final int NONE = 0;
+    private static final int LONG = 1;
+    private static final int DOUBLE = 2;
+    private static final int DECIMAL = 3;
+
+    private int mode = NONE;
+
+    private long longSum;
+
+    private double doubleSum;
+
+    /**
+     * Kahan求和的补偿值
+     */
+    private double compensation;
+
+    private BigDecimal decimalSum;
+
+    /**
+     * 累加，null忽略
+     *
+     * @param value 值
+     */
+    public void add(Number value) {
+        if (value == null) {
+            return;
+        }
+        if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            add(value.longValue());
+        } else if (value instanceof Double || value instanceof Float) {
+            add(value.doubleValue());
+        } else {
+            add(NumberUtil.toBigDecimal(value));
+        }
+    }
+
+    public void add(long value) {
+        switch (mode) {
+            case NONE:
+                mode = LONG;
+                longSum = value;
+                break;
+            case LONG:
+                long r = longSum + value;
+                if (((longSum ^ r) & (value ^ r)) < 0) {
+                    mode = DECIMAL;
+                    decimalSum = BigDecimal.valueOf(longSum).add(BigDecimal.valueOf(value));
+                } else {
+                    longSum = r;
+                }
+                break;
+            case DOUBLE:
+                kahan(value);
+                break;
+            default:
+                decimalSum = decimalSum.add(BigDecimal.valueOf(value));
+        }
+    }
+
+    public void add(double value) {
+        switch (mode) {
+            case NONE:
+                mode = DOUBLE;
+                doubleSum = value;
+                break;
+            case LONG:
+                mode = DOUBLE;
+                doubleSum = longSum;
+                kahan(value);
+                break;
+            case DOUBLE:
+                kahan(value);
+                break;
+            default:
+                decimalSum = decimalSum.add(BigDecimal.valueOf(value));
+        }
+    }
+
+    public void add(BigDecimal value) {
+        if (value == null) {
+            return;
+        }
+        BigDecimal current = toBigDecimal();
+        decimalSum = current == null ? value : current.add(value);
+        mode = DECIMAL;
+    }
+
+    private void kahan(double value) {
+        double y = value - compensation;
+        double t = doubleSum + y;
+        compensation = (t - doubleSum) - y;
+        doubleSum = t;
+    }
+
+    /**
+     * 合并另一个累加器
+     *
+     * @param other 其他累加器
+     * @return 当前累加器
+     */
+    public SumAccumulator merge(SumAccumulator other) {
+        switch (other.mode) {
+            case LONG:
+                add(other.longSum);
+                break;
+            case DOUBLE:
+                add(other.doubleSum);
+                add(-other.compensation);
+                break;
+            case DECIMAL:
+                add(other.decimalSum);
+                break;
+            default:
+        }
+        return this;
+    }
+
+    /**
+     * 是否未累加过任何值
+     */
+    public boolean isEmpty() {
+        return mode == NONE;
+    }
+
+    /**
+     * 以double取和
+     */
+    public double doubleValue() {
+        switch (mode) {
+            case LONG:
+                return longSum;
+            case DOUBLE:
+                double sum = doubleSum - compensation;
+                return Double.isNaN(sum) ? doubleSum : sum;
+            case DECIMAL:
+                return decimalSum.doubleValue();
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * 以BigDecimal取和
+     *
+     * @return 和，未累加过任何值时为null
+     */
+    public BigDecimal toBigDecimal() {
+        switch (mode) {
+            case LONG:
+                return BigDecimal.valueOf(longSum);
+            case DOUBLE:
+                return BigDecimal.valueOf(doubleValue());
+            case DECIMAL:
+                return decimalSum;
+            default:
+                return null;
+        }
+    }
+
+}
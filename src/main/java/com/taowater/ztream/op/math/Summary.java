@@ -0,0 +1,218 @@
+package com.taowater.ztream.op.math;
+
+import java.math.BigDecimal;
+
+/**
+ * 汇总统计
+ * 单次遍历得出个数、null个数、和、最值、均值、方差，均值与方差按Welford算法累计，可合并
+ * 和按{@link SumAccumulator}累加：整数以long累加、溢出时转为BigDecimal，BigDecimal等精确累加；整数的最值以long记录
+ *
+ * @author zhu56
+ */
+public class Summary {
+
+    private long count;
+    private long nullCount;
+    private final SumAccumulator sum = new SumAccumulator();
+    /**
+     * 是否只累计过整数值
+     */
+    private boolean integral = true;
+    private long longMin = Long.MAX_VALUE;
+    private long longMax = Long.MIN_VALUE;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    private double mean;
+    /**
+     * 与均值之差的平方和
+     */
+    private double m2;
+
+    public void add(double value) {
+        integral = false;
+        sum.add(value);
+        accumulate(value);
+    }
+
+    /**
+     * 按数值类型累计，和的累加方式与{@link SumAccumulator#add(Number)}一致，null计入null个数
+     *
+     * @param value 值
+     */
+    public void add(Number value) {
+        if (value == null) {
+            addNull();
+        } else if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            add(value.longValue());
+        } else {
+            integral = false;
+            sum.add(value);
+            accumulate(value.doubleValue());
+        }
+    }
+
+    public void add(long value) {
+        sum.add(value);
+        longMin = java.lang.Math.min(longMin, value);
+        longMax = java.lang.Math.max(longMax, value);
+        accumulate(value);
+    }
+
+    /**
+     * 累计个数、浮点最值、均值与方差
+     */
+    private void accumulate(double value) {
+        count++;
+        min = java.lang.Math.min(min, value);
+        max = java.lang.Math.max(max, value);
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+    }
+
+    /**
+     * null计数加一
+     */
+    public void addNull() {
+        nullCount++;
+    }
+
+    /**
+     * 合并另一个统计
+     *
+     * @param other 其他统计
+     * @return 当前统计
+     */
+    public Summary merge(Summary other) {
+        nullCount += other.nullCount;
+        if (other.count == 0) {
+            return this;
+        }
+        sum.merge(other.sum);
+        integral &= other.integral;
+        longMin = java.lang.Math.min(longMin, other.longMin);
+        longMax = java.lang.Math.max(longMax, other.longMax);
+        if (count == 0) {
+            count = other.count;
+            min = other.min;
+            max = other.max;
+            mean = other.mean;
+            m2 = other.m2;
+            return this;
+        }
+        long n = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / n;
+        m2 += other.m2 + delta * delta * ((double) count * other.count / n);
+        min = java.lang.Math.min(min, other.min);
+        max = java.lang.Math.max(max, other.max);
+        count = n;
+        return this;
+    }
+
+    /**
+     * 非null值个数
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * null（含元素为null）个数
+     */
+    public long getNullCount() {
+        return nullCount;
+    }
+
+    /**
+     * 和，无值时为null
+     */
+    public Double getSum() {
+        return count == 0 ? null : sum.doubleValue();
+    }
+
+    /**
+     * 以BigDecimal表示的和，整数和BigDecimal等值精确累加（不受long溢出影响），无值时为null
+     */
+    public BigDecimal getDecimalSum() {
+        return sum.toBigDecimal();
+    }
+
+    /**
+     * 整数值的和，无值或含浮点值时为null
+     *
+     * @throws ArithmeticException 和超出long范围
+     */
+    public Long getLongSum() {
+        return isIntegral() ? sum.toBigDecimal().longValueExact() : null;
+    }
+
+    /**
+     * 整数值的最小值，无值或含浮点值时为null
+     */
+    public Long getLongMin() {
+        return isIntegral() ? longMin : null;
+    }
+
+    /**
+     * 整数值的最大值，无值或含浮点值时为null
+     */
+    public Long getLongMax() {
+        return isIntegral() ? longMax : null;
+    }
+
+    /**
+     * 是否有值且都是整数
+     */
+    public boolean isIntegral() {
+        return count > 0 && integral;
+    }
+
+    /**
+     * 最小值，无值时为null
+     */
+    public Double getMin() {
+        return count == 0 ? null : min;
+    }
+
+    /**
+     * 最大值，无值时为null
+     */
+    public Double getMax() {
+        return count == 0 ? null : max;
+    }
+
+    /**
+     * 均值，无值时为null
+     */
+    public Double getMean() {
+        return count == 0 ? null : mean;
+    }
+
+    /**
+     * 总体方差，无值时为null
+     */
+    public Double getVariance() {
+        return count == 0 ? null : m2 / count;
+    }
+
+    /**
+     * 样本方差，少于两个值时为null
+     */
+    public Double getSampleVariance() {
+        return count < 2 ? null : m2 / (count - 1);
+    }
+
+    /**
+     * 总体标准差，无值时为null
+     */
+    public Double getStddev() {
+        return count == 0 ? null : java.lang.Math.sqrt(m2 / count);
+    }
+
+    @Override
+    public String toString() {
+        return "Summary{count=" + count + ", nullCount=" + nullCount + ", sum=" + (isIntegral() ? getDecimalSum() : getSum()) + ", min=" + getMin() + ", max=" + getMax()
+                + ", mean=" + getMean() + ", variance=" + getVariance() + "}";
+    }
+}
@@ -0,0 +1,162 @@
+package com.taowater.ztream.op.sort;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 有界堆，保留排序后最前（或最后）的k个元素
+ * 比较相等时按出现顺序区分，结果与稳定排序后截取一致
+ *
+ * @author zhu56
+ */
+public class BoundedHeap<T> {
+    private final int k;
+    private final Comparator<? super T> comparator;
+    /**
+     * 是否保留最后k个
+     */
+    private final boolean last;
+    /**
+     * 初始容量，之后按需扩容至k
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    private Object[] items;
+    private long[] seqs;
+    private int size;
+    /**
+     * 已遍历的元素数
+     */
+    private long count;
+
+    public BoundedHeap(int k, Comparator<? super T> comparator, boolean last) {
+        this.k = k;
+        this.comparator = comparator;
+        this.last = last;
+        this.items = new Object[Math.min(k, INITIAL_CAPACITY)];
+        this.seqs = new long[items.length];
+    }
+
+    public void add(T t) {
+        offer(t, count++);
+    }
+
+    /**
+     * 合并，另一堆的元素均出现在本堆之后
+     *
+     * @param other 另一堆
+     * @return 合并后的堆
+     */
+    public BoundedHeap<T> merge(BoundedHeap<T> other) {
+        for (int i = 0; i < other.size; i++) {
+            offer(other.item(i), count + other.seqs[i]);
+        }
+        count += other.count;
+        return this;
+    }
+
+    /**
+     * 按排序顺序输出
+     * 依次弹出堆顶（最先被淘汰的元素）填入结果，输出后堆被清空
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> toList() {
+        int total = size;
+        Object[] sorted = new Object[total];
+        for (int i = 0; i < total; i++) {
+            sorted[last ? i : total - 1 - i] = items[0];
+            swap(0, --size);
+            siftDown(0);
+        }
+        return (List<T>) Arrays.asList(sorted);
+    }
+
+    private void offer(T t, long seq) {
+        if (size < k) {
+            if (size == items.length) {
+                grow();
+            }
+            items[size] = t;
+            seqs[size] = seq;
+            siftUp(size++);
+            return;
+        }
+        if (k == 0 || heapCompare(t, seq, item(0), seqs[0]) >= 0) {
+            return;
+        }
+        items[0] = t;
+        seqs[0] = seq;
+        siftDown(0);
+    }
+
+    /**
+     * 扩容为1.5倍，不超过k
+     */
+    private void grow() {
+        int capacity = (int) Math.min(k, items.length + (items.length >> 1) + 1L);
+        items = Arrays.copyOf(items, capacity);
+        seqs = Arrays.copyOf(seqs, capacity);
+    }
+
+    /**
+     * 元素在排序中的先后，相等时按出现顺序
+     */
+    private int compare(T a, long seqA, T b, long seqB) {
+        int c = comparator.compare(a, b);
+        return c != 0 ? c : Long.compare(seqA, seqB);
+    }
+
+    /**
+     * 堆序，堆顶为最先被淘汰的元素
+     */
+    private int heapCompare(T a, long seqA, T b, long seqB) {
+        int c = compare(a, seqA, b, seqB);
+        return last ? -c : c;
+    }
+
+    private int heapCompare(int i, int j) {
+        return heapCompare(item(i), seqs[i], item(j), seqs[j]);
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heapCompare(i, parent) <= 0) {
+                return;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < size && heapCompare(right, child) > 0) {
+                child = right;
+            }
+            if (heapCompare(i, child) >= 0) {
+                return;
+            }
+            swap(i, child);
+            i = child;
+        }
+    }
+
+    private void swap(int i, int j) {
+        Object t = items[i];
+        items[i] = items[j];
+        items[j] = t;
+        long s = seqs[i];
+        seqs[i] = seqs[j];
+        seqs[j] = s;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T item(int i) {
+        return (T) items[i];
+    }
+}
@@ -1,13 +1,19 @@
 package com.taowater.ztream.op.sort;
 
 import com.taowater.ztream.IZtream;
-import com.taowater.ztream.assist.Box;
+import com.taowater.ztream.assist.ExCollectors;
+import com.taowater.ztream.assist.Randoms;
+import com.taowater.ztream.assist.Spliterators;
 
+import java.util.Arrays;
 import java.util.Comparator;
-import java.util.concurrent.ThreadLocalRandom;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.List;
+import java.util.Random;
+import java.util.Spliterator;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.stream.Collector;
+import java.util.stream.StreamSupport;
 
 /**
  * 排序操作
@@ -60,14 +66,42 @@ public interface Sort<T, S extends IZtream<T, S>> extends IZtream<T, S>, Asc<T,
 
     /**
      * 排序
+     * 缓冲为数组后由{@link SortEngine}按元素个数、是否并行及排序键选择排序方式，在终端操作时才执行
      *
      * @param consumer 排序上下分的消费函数
      * @return 新流
      */
+    @SuppressWarnings("unchecked")
     default S sort(Consumer<Sorter<T>> consumer) {
         Sorter<T> sorter = new Sorter<>();
         consumer.accept(sorter);
-        return sorted(sorter.getComparator());
+        boolean parallel = isParallel();
+        return ztream(StreamSupport.stream(() -> Arrays.spliterator((T[]) SortEngine.sort(toArray(), sorter, parallel)),
+                Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.ORDERED, parallel).onClose(this::close));
+    }
+
+    /**
+     * 排序后取前k个
+     * 有界堆实现，只保留k个元素，结果与sort(consumer).limit(k)一致
+     *
+     * @param k        个数
+     * @param consumer 排序上下文的消费函数
+     * @return 新流
+     */
+    default S topK(int k, Consumer<Sorter<T>> consumer) {
+        return ztream(SortEngine.top(this, k, consumer, false));
+    }
+
+    /**
+     * 排序后取最后k个，按排序顺序输出
+     * 有界堆实现，只保留k个元素
+     *
+     * @param k        个数
+     * @param consumer 排序上下文的消费函数
+     * @return 新流
+     */
+    default S bottomK(int k, Consumer<Sorter<T>> consumer) {
+        return ztream(SortEngine.top(this, k, consumer, true));
     }
 
     /**
@@ -89,7 +123,68 @@ public interface Sort<T, S extends IZtream<T, S>> extends IZtream<T, S>, Asc<T,
         if (!condition) {
             return ztream(this);
         }
-        return ztream(map(e -> new Box.PairBox<>(e, ThreadLocalRandom.current().nextInt())).sorted(Comparator.comparing(Box.PairBox::getB)).map(Box::getA));
+        return shuffle(null);
+    }
+
+    /**
+     * 以指定种子洗牌，结果可复现
+     *
+     * @param seed 种子
+     * @return {@link S }
+     */
+    default S shuffle(long seed) {
+        return shuffle(new Random(seed));
+    }
+
+    /**
+     * 洗牌
+     * 缓冲为数组后Fisher–Yates原地打乱，在终端操作时才执行
+     *
+     * @param random 随机数生成器，为null时使用{@link java.util.concurrent.ThreadLocalRandom}
+     * @return {@link S }
+     */
+    @SuppressWarnings("unchecked")
+    default S shuffle(Random random) {
+        return ztream(StreamSupport.stream(() -> {
+            Object[] values = toArray();
+            Randoms.shuffle(values, Randoms.orCurrent(random));
+            return Arrays.spliterator((T[]) values);
+        }, Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.ORDERED, isParallel()).onClose(this::close));
+    }
+
+    /**
+     * 随机抽取k个元素，结果顺序不保证
+     *
+     * @param k 个数
+     * @return {@link S }
+     */
+    default S sample(int k) {
+        return sample(k, null);
+    }
+
+    /**
+     * 以指定种子随机抽取k个元素，串行时结果可复现
+     *
+     * @param k    个数
+     * @param seed 种子
+     * @return {@link S }
+     */
+    default S sample(int k, long seed) {
+        return sample(k, new Random(seed));
+    }
+
+    /**
+     * 随机抽取k个元素
+     * 蓄水池抽样，一次遍历、只保留k个元素，并行时各线程抽样后合并
+     *
+     * @param k      个数
+     * @param random 随机数生成器，为null时使用{@link java.util.concurrent.ThreadLocalRandom}
+     * @return {@link S }
+     */
+    default S sample(int k, Random random) {
+        Collector<T, ?, List<T>> collector = ExCollectors.sample(k, random);
+        return ztream(StreamSupport.stream(() -> collect(collector).spliterator(),
+                Spliterator.SIZED | Spliterator.SUBSIZED, isParallel()).onClose(this::close));
     }
 
     /**
@@ -103,15 +198,19 @@ public interface Sort<T, S extends IZtream<T, S>> extends IZtream<T, S>, Asc<T,
 
     /**
      * 反转顺序
+     * 缓冲为数组后倒序遍历，在终端操作时才执行
      *
      * @param condition 执行条件
      */
+    @SuppressWarnings("unchecked")
     default S reverse(boolean condition) {
         if (!condition) {
             return ztream(this);
         }
-        AtomicInteger index = new AtomicInteger(0);
-        return ztream(map(e -> new Box.PairBox<>(e, index.getAndAdd(1))).sorted(Comparator.comparing((Function<Box.PairBox<T, Integer>, Integer>) Box.PairBox::getB).reversed()).map(Box::getA));
+        return ztream(StreamSupport.stream(() -> {
+            Object[] values = toArray();
+            return new Spliterators.ReverseSpliterator<>(i -> (T) values[i], values.length);
+        }, Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.ORDERED, isParallel()).onClose(this::close));
     }
 
     @Override
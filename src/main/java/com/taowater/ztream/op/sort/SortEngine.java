@@ -0,0 +1,125 @@
+package com.taowater.ztream.op.sort;
+
+import com.taowater.ztream.IZtream;
+import com.taowater.ztream.assist.ExCollectors;
+import lombok.experimental.UtilityClass;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 排序引擎
+ * 按元素个数、是否并行及排序键选择排序方式，阈值可按部署环境调整
+ *
+ * @author zhu56
+ */
+@UtilityClass
+public class SortEngine {
+
+    /**
+     * 排序方式
+     */
+    public enum Strategy {
+        /**
+         * 串行稳定排序（TimSort或归并排序）
+         */
+        TIM,
+        /**
+         * {@link Arrays#parallelSort}
+         */
+        PARALLEL,
+        /**
+         * 单个整数键的基数排序
+         */
+        RADIX
+    }
+
+    /**
+     * 并行流元素个数不小于此值时并行排序
+     */
+    private static volatile int parallelThreshold = 1 << 13;
+
+    /**
+     * 只有单个整数键且元素个数不小于此值时基数排序，设为{@link Integer#MAX_VALUE}即关闭
+     */
+    private static volatile int radixThreshold = 1 << 8;
+
+    public static int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    public static void setParallelThreshold(int threshold) {
+        parallelThreshold = Math.max(1, threshold);
+    }
+
+    public static int getRadixThreshold() {
+        return radixThreshold;
+    }
+
+    public static void setRadixThreshold(int threshold) {
+        radixThreshold = Math.max(1, threshold);
+    }
+
+    /**
+     * 选择排序方式
+     *
+     * @param size        元素个数
+     * @param parallel    是否并行
+     * @param integralKey 是否只有单个整数键
+     * @return {@link Strategy }
+     */
+    public static Strategy choose(int size, boolean parallel, boolean integralKey) {
+        if (integralKey && size >= radixThreshold) {
+            return Strategy.RADIX;
+        }
+        if (parallel && size >= parallelThreshold) {
+            return Strategy.PARALLEL;
+        }
+        return Strategy.TIM;
+    }
+
+    /**
+     * 排序
+     *
+     * @param values   元素
+     * @param sorter   排序器
+     * @param parallel 是否并行
+     * @return 排好序的数组
+     */
+    @SuppressWarnings("unchecked")
+    static <T> Object[] sort(Object[] values, Sorter<T> sorter, boolean parallel) {
+        if (sorter.precomputable()) {
+            return sorter.plan().sort(values, parallel);
+        }
+        Comparator<Object> comparator = (Comparator<Object>) sorter.getComparator();
+        if (choose(values.length, parallel, false) == Strategy.PARALLEL) {
+            Arrays.parallelSort(values, comparator);
+        } else {
+            Arrays.sort(values, comparator);
+        }
+        return values;
+    }
+
+    /**
+     * 排序后取前（或最后）k个，在终端操作时才执行，并行时各线程的堆按顺序合并
+     *
+     * @param source   源流
+     * @param k        个数
+     * @param consumer 排序上下文的消费函数
+     * @param last     是否取最后k个
+     * @return 新流
+     */
+    static <T> Stream<T> top(IZtream<T, ?> source, int k, Consumer<Sorter<T>> consumer, boolean last) {
+        Sorter<T> sorter = new Sorter<>();
+        consumer.accept(sorter);
+        Collector<T, ?, List<T>> collector = ExCollectors.top(k, sorter.getComparator(), last);
+        return StreamSupport.stream(() -> source.collect(collector).spliterator(),
+                Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.ORDERED, source.isParallel()).onClose(source::close);
+    }
+}
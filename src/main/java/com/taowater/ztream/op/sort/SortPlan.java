@@ -0,0 +1,347 @@
+package com.taowater.ztream.op.sort;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * 排序计划
+ * 每个元素的各排序键只提取一次，基本类型包装类的键存入基本类型数组，再对下标稳定排序
+ *
+ * @author zhu56
+ */
+class SortPlan<T> {
+
+    /**
+     * 小于此长度时插入排序
+     */
+    private static final int INSERTION_THRESHOLD = 16;
+    /**
+     * 并行归并时不再拆分的最小长度
+     */
+    private static final int PARALLEL_GRAIN = 1 << 13;
+
+    private final List<Sorter.Key<T>> keys;
+    /**
+     * 元素为null时是否前置
+     */
+    private final boolean nullFirst;
+
+    SortPlan(List<Sorter.Key<T>> keys, boolean nullFirst) {
+        this.keys = keys;
+        this.nullFirst = nullFirst;
+    }
+
+    /**
+     * 排序，结果与按比较器链稳定排序一致
+     *
+     * @param values   元素
+     * @param parallel 是否并行
+     * @return 排好序的新数组
+     */
+    @SuppressWarnings("unchecked")
+    Object[] sort(Object[] values, boolean parallel) {
+        int nullCount = 0;
+        Object[] items = new Object[values.length];
+        int n = 0;
+        for (Object value : values) {
+            if (Objects.isNull(value)) {
+                nullCount++;
+            } else {
+                items[n++] = value;
+            }
+        }
+        Column[] columns = new Column[keys.size()];
+        for (int c = 0; c < columns.length; c++) {
+            columns[c] = column(keys.get(c), (T[]) items, n);
+        }
+        Column cmp = (i, j) -> {
+            for (Column column : columns) {
+                int r = column.compare(i, j);
+                if (r != 0) {
+                    return r;
+                }
+            }
+            return 0;
+        };
+        int[] index;
+        switch (SortEngine.choose(n, parallel, columns.length == 1 && columns[0] instanceof LongColumn)) {
+            case RADIX:
+                index = ((LongColumn) columns[0]).radixSort();
+                break;
+            case PARALLEL:
+                index = identity(n);
+                int grain = Math.max(n / (ForkJoinPool.getCommonPoolParallelism() << 2), PARALLEL_GRAIN);
+                ForkJoinPool.commonPool().invoke(new ParallelMergeSort(index, new int[n], 0, n, grain, cmp));
+                break;
+            default:
+                index = identity(n);
+                mergeSort(index, new int[n], 0, n, cmp);
+        }
+        Object[] result = new Object[values.length];
+        int offset = nullFirst ? nullCount : 0;
+        for (int i = 0; i < n; i++) {
+            result[offset + i] = items[index[i]];
+        }
+        return result;
+    }
+
+    /**
+     * 提取一列键，能用基本类型存放时不保留装箱对象
+     */
+    private static <T> Column column(Sorter.Key<T> key, T[] items, int n) {
+        if (Objects.isNull(key.extractor)) {
+            return (i, j) -> key.comparator.compare(items[i], items[j]);
+        }
+        Object[] values = new Object[n];
+        Class<?> type = null;
+        boolean uniform = true;
+        for (int i = 0; i < n; i++) {
+            Object value = key.extractor.apply(items[i]);
+            values[i] = value;
+            if (Objects.nonNull(value)) {
+                if (Objects.isNull(type)) {
+                    type = value.getClass();
+                } else if (type != value.getClass()) {
+                    uniform = false;
+                }
+            }
+        }
+        if (key.natural && uniform && Objects.nonNull(type)) {
+            if (type == Integer.class || type == Long.class || type == Short.class || type == Byte.class) {
+                return new LongColumn(values, key.desc, key.nullFirst);
+            }
+            if (type == Double.class || type == Float.class) {
+                return new DoubleColumn(values, key.desc, key.nullFirst);
+            }
+        }
+        Comparator<Object> comparator = key.comparator;
+        return (i, j) -> comparator.compare(values[i], values[j]);
+    }
+
+    /**
+     * 稳定的归并排序，相等时保持原顺序
+     */
+    private static void mergeSort(int[] a, int[] tmp, int lo, int hi, Column cmp) {
+        if (hi - lo < INSERTION_THRESHOLD) {
+            for (int i = lo + 1; i < hi; i++) {
+                int v = a[i];
+                int j = i - 1;
+                while (j >= lo && cmp.compare(a[j], v) > 0) {
+                    a[j + 1] = a[j];
+                    j--;
+                }
+                a[j + 1] = v;
+            }
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        mergeSort(a, tmp, lo, mid, cmp);
+        mergeSort(a, tmp, mid, hi, cmp);
+        merge(a, tmp, lo, mid, hi, cmp);
+    }
+
+    /**
+     * 合并相邻的两段有序下标，相等时左段在前
+     */
+    private static void merge(int[] a, int[] tmp, int lo, int mid, int hi, Column cmp) {
+        if (cmp.compare(a[mid - 1], a[mid]) <= 0) {
+            return;
+        }
+        System.arraycopy(a, lo, tmp, lo, hi - lo);
+        int i = lo;
+        int j = mid;
+        for (int k = lo; k < hi; k++) {
+            if (j >= hi || (i < mid && cmp.compare(tmp[i], tmp[j]) <= 0)) {
+                a[k] = tmp[i++];
+            } else {
+                a[k] = tmp[j++];
+            }
+        }
+    }
+
+    private static int[] identity(int n) {
+        int[] index = new int[n];
+        for (int i = 0; i < n; i++) {
+            index[i] = i;
+        }
+        return index;
+    }
+
+    /**
+     * 并行的稳定归并排序，直接对基本类型下标数组分治，两段各自排序后合并
+     */
+    private static class ParallelMergeSort extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] a;
+        private final int[] tmp;
+        private final int lo;
+        private final int hi;
+        private final int grain;
+        private final Column cmp;
+
+        ParallelMergeSort(int[] a, int[] tmp, int lo, int hi, int grain, Column cmp) {
+            this.a = a;
+            this.tmp = tmp;
+            this.lo = lo;
+            this.hi = hi;
+            this.grain = grain;
+            this.cmp = cmp;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo <= grain) {
+                mergeSort(a, tmp, lo, hi, cmp);
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new ParallelMergeSort(a, tmp, lo, mid, grain, cmp), new ParallelMergeSort(a, tmp, mid, hi, grain, cmp));
+            merge(a, tmp, lo, mid, hi, cmp);
+        }
+    }
+
+    /**
+     * 按下标比较的键列
+     */
+    @FunctionalInterface
+    interface Column {
+        int compare(int i, int j);
+    }
+
+    /**
+     * 整数键列
+     */
+    private static class LongColumn implements Column {
+        private final long[] values;
+        private final boolean[] nulls;
+        private final boolean desc;
+        private final boolean nullFirst;
+
+        LongColumn(Object[] keys, boolean desc, boolean nullFirst) {
+            this.values = new long[keys.length];
+            this.nulls = new boolean[keys.length];
+            this.desc = desc;
+            this.nullFirst = nullFirst;
+            for (int i = 0; i < keys.length; i++) {
+                if (Objects.isNull(keys[i])) {
+                    nulls[i] = true;
+                } else {
+                    values[i] = ((Number) keys[i]).longValue();
+                }
+            }
+        }
+
+        @Override
+        public int compare(int i, int j) {
+            if (nulls[i] || nulls[j]) {
+                return compareNull(nulls[i], nulls[j], nullFirst);
+            }
+            int r = Long.compare(values[i], values[j]);
+            return desc ? -r : r;
+        }
+
+        /**
+         * 稳定的LSD基数排序，每趟8位，所有元素该位相同的趟跳过（值域较小时相当于计数排序）
+         *
+         * @return 排好序的下标
+         */
+        int[] radixSort() {
+            int n = values.length;
+            int m = 0;
+            for (boolean isNull : nulls) {
+                if (!isNull) {
+                    m++;
+                }
+            }
+            int[] index = new int[n];
+            int[] src = new int[m];
+            long[] keys = new long[m];
+            int nullPos = nullFirst ? 0 : m;
+            int pos = 0;
+            for (int i = 0; i < n; i++) {
+                if (nulls[i]) {
+                    index[nullPos++] = i;
+                    continue;
+                }
+                // 翻转符号位使有符号数按无符号顺序排列，倒序时再整体取反
+                long key = values[i] ^ Long.MIN_VALUE;
+                keys[pos] = desc ? ~key : key;
+                src[pos++] = i;
+            }
+            int[] dst = new int[m];
+            long[] keysDst = new long[m];
+            int[] count = new int[257];
+            for (int shift = 0; shift < Long.SIZE; shift += 8) {
+                Arrays.fill(count, 0);
+                for (long key : keys) {
+                    count[(int) (key >>> shift & 0xFF) + 1]++;
+                }
+                if (count[(int) (keys.length == 0 ? 0 : keys[0] >>> shift & 0xFF) + 1] == m) {
+                    continue;
+                }
+                for (int d = 0; d < 256; d++) {
+                    count[d + 1] += count[d];
+                }
+                for (int i = 0; i < m; i++) {
+                    int d = (int) (keys[i] >>> shift & 0xFF);
+                    int to = count[d]++;
+                    dst[to] = src[i];
+                    keysDst[to] = keys[i];
+                }
+                int[] t = src;
+                src = dst;
+                dst = t;
+                long[] tk = keys;
+                keys = keysDst;
+                keysDst = tk;
+            }
+            System.arraycopy(src, 0, index, nullFirst ? n - m : 0, m);
+            return index;
+        }
+    }
+
+    /**
+     * 浮点键列
+     */
+    private static class DoubleColumn implements Column {
+        private final double[] values;
+        private final boolean[] nulls;
+        private final boolean desc;
+        private final boolean nullFirst;
+
+        DoubleColumn(Object[] keys, boolean desc, boolean nullFirst) {
+            this.values = new double[keys.length];
+            this.nulls = new boolean[keys.length];
+            this.desc = desc;
+            this.nullFirst = nullFirst;
+            for (int i = 0; i < keys.length; i++) {
+                if (Objects.isNull(keys[i])) {
+                    nulls[i] = true;
+                } else {
+                    values[i] = ((Number) keys[i]).doubleValue();
+                }
+            }
+        }
+
+        @Override
+        public int compare(int i, int j) {
+            if (nulls[i] || nulls[j]) {
+                return compareNull(nulls[i], nulls[j], nullFirst);
+            }
+            int r = Double.compare(values[i], values[j]);
+            return desc ? -r : r;
+        }
+    }
+
+    private static int compareNull(boolean a, boolean b, boolean nullFirst) {
+        if (a == b) {
+            return 0;
+        }
+        return a == nullFirst ? -1 : 1;
+    }
+}
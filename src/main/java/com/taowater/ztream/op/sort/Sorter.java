@@ -2,7 +2,9 @@ package com.taowater.ztream.op.sort;
 
 import lombok.NoArgsConstructor;
 
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.List;
 import java.util.Objects;
 import java.util.function.Function;
 
@@ -25,6 +27,11 @@ public class Sorter<T> implements Asc<T, Sorter<T>>, Desc<T, Sorter<T>> {
      */
     private boolean nullFirst = true;
 
+    /**
+     * 各排序键，与比较器一一对应，用于预先提取键排序
+     */
+    private final List<Key<T>> keys = new ArrayList<>();
+
     public Sorter(boolean nullFirst) {
         this.nullFirst = nullFirst;
     }
@@ -53,8 +60,8 @@ public class Sorter<T> implements Asc<T, Sorter<T>>, Desc<T, Sorter<T>> {
     public <U extends Comparable<? super U>> Sorter<T> sort(boolean condition, Function<? super T, ? extends U> keyExtractor, boolean desc, boolean nullFirst) {
         if (condition) {
             Comparator<U> baseOrder = desc ? Comparator.reverseOrder() : Comparator.naturalOrder();
-            Comparator<T> otherComparator = Comparator.comparing(keyExtractor, Sorter.<U>nullOrder(nullFirst).apply(baseOrder));
-            return then(otherComparator);
+            Comparator<U> keyComparator = Sorter.<U>nullOrder(nullFirst).apply(baseOrder);
+            return then(Comparator.comparing(keyExtractor, keyComparator), new Key<>(keyExtractor, keyComparator, true, desc, nullFirst));
         }
         return this;
     }
@@ -103,7 +110,7 @@ public class Sorter<T> implements Asc<T, Sorter<T>>, Desc<T, Sorter<T>> {
      * @param keyComparator 排序器
      */
     public <U extends Comparable<? super U>> Sorter<T> then(Function<? super T, ? extends U> keyExtractor, Comparator<? super U> keyComparator) {
-        return then(Comparator.comparing(keyExtractor, keyComparator), true);
+        return then(Comparator.nullsFirst(Comparator.comparing(keyExtractor, keyComparator)), new Key<>(keyExtractor, keyComparator, false, false, true));
     }
 
     /**
@@ -114,6 +121,11 @@ public class Sorter<T> implements Asc<T, Sorter<T>>, Desc<T, Sorter<T>> {
      */
     public Sorter<T> then(Comparator<? super T> otherComparator, boolean nullFirst) {
         Comparator<T> realOtherComparator = Sorter.<T>nullOrder(nullFirst).apply(otherComparator);
+        boolean natural = otherComparator == Comparator.naturalOrder();
+        if (natural || otherComparator == Comparator.reverseOrder()) {
+            // 元素自身的自然顺序，按以元素为键记录，以便按基本类型排序
+            return then(realOtherComparator, new Key<>(Function.identity(), realOtherComparator, true, !natural, nullFirst));
+        }
         return then(realOtherComparator);
     }
 
@@ -123,14 +135,33 @@ public class Sorter<T> implements Asc<T, Sorter<T>>, Desc<T, Sorter<T>> {
      * @param otherComparator 其他比较器
      */
     public Sorter<T> then(Comparator<T> otherComparator) {
+        return then(otherComparator, new Key<>(null, otherComparator, false, false, true));
+    }
+
+    private Sorter<T> then(Comparator<T> otherComparator, Key<T> key) {
         if (Objects.isNull(comparator)) {
             comparator = otherComparator;
         } else {
             comparator = comparator.thenComparing(otherComparator);
         }
+        keys.add(key);
         return this;
     }
 
+    /**
+     * 是否值得预先提取键，至少有一个键来自属性
+     */
+    boolean precomputable() {
+        return keys.stream().anyMatch(k -> Objects.nonNull(k.extractor));
+    }
+
+    /**
+     * 编译为预先提取键的排序计划
+     */
+    SortPlan<T> plan() {
+        return new SortPlan<>(keys, nullFirst);
+    }
+
     /**
      * 排序
      *
@@ -138,7 +169,7 @@ public class Sorter<T> implements Asc<T, Sorter<T>>, Desc<T, Sorter<T>> {
      * @param keyComparator 比较器
      */
     public <U extends Comparable<? super U>> Sorter<T> sort(Function<? super T, ? extends U> keyExtractor, Comparator<? super U> keyComparator) {
-        return then(Comparator.comparing(keyExtractor, keyComparator));
+        return then(Comparator.comparing(keyExtractor, keyComparator), new Key<>(keyExtractor, keyComparator, false, false, true));
     }
 
     @Override
@@ -160,4 +191,33 @@ public class Sorter<T> implements Asc<T, Sorter<T>>, Desc<T, Sorter<T>> {
     public Sorter<T> asc(boolean condition, Comparator<? super T> comparator, boolean nullFirst) {
         return sort(condition, comparator::compare, false, nullFirst);
     }
+
+    /**
+     * 排序键
+     */
+    @SuppressWarnings("unchecked")
+    static class Key<T> {
+        /**
+         * 键的提取函数，为null时以元素本身为键
+         */
+        final Function<? super T, ?> extractor;
+        /**
+         * 键的比较器，已包含方向和null值顺序
+         */
+        final Comparator<Object> comparator;
+        /**
+         * 是否为自然顺序，此时可按基本类型比较
+         */
+        final boolean natural;
+        final boolean desc;
+        final boolean nullFirst;
+
+        <U> Key(Function<? super T, ? extends U> extractor, Comparator<? super U> comparator, boolean natural, boolean desc, boolean nullFirst) {
+            this.extractor = extractor;
+            this.comparator = (Comparator<Object>) comparator;
+            this.natural = natural;
+            this.desc = desc;
+            this.nullFirst = nullFirst;
+        }
+    }
 }
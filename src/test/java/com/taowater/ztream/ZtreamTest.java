@@ -2,17 +2,30 @@ package com.taowater.ztream;
 
 import com.taowater.taol.core.util.EmptyUtil;
 import com.taowater.ztream.TestClass.Student;
+import com.taowater.ztream.assist.BloomFilter;
+import com.taowater.ztream.assist.ExCollectors;
 import com.taowater.ztream.assist.Functions;
+import com.taowater.ztream.op.filter.Condition;
+import com.taowater.ztream.op.filter.Wrapper;
+import com.taowater.ztream.op.math.HyperLogLog;
+import com.taowater.ztream.op.math.Summary;
+import com.taowater.ztream.op.sort.SortEngine;
+import com.taowater.ztream.op.sort.Sorter;
 import lombok.SneakyThrows;
 import lombok.var;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.platform.commons.util.StringUtils;
 
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static com.taowater.ztream.TestClass.testList;
@@ -42,6 +55,49 @@ class ZtreamTest {
                 Ztream.of(testList).group(Student::getName, Student::getAge, Collectors.toSet()),
                 group2
         );
+
+        equals(
+                Ztream.of(testList).parallel().group(Student::getName, Student::getAge, Collectors.toSet()),
+                group2
+        );
+
+        Map<String, Set<Integer>> concurrentGroup = Ztream.of(testList).parallel().groupByConcurrent(Student::getName, Student::getAge, Collectors.toSet());
+        equals(
+                concurrentGroup,
+                group2
+        );
+
+        Map<Integer, Long> counts = Ztream.range(0, 100000).boxed().parallel().groupByConcurrent(i -> i % 7 == 0 ? null : i % 3, Collectors.counting());
+        equals(counts.get(null), 14286L);
+        equals(counts.values().stream().mapToLong(Long::longValue).sum(), 100000L);
+
+        var entries = Ztream.of(testList).group(Student::getName, Student::getAge, Collectors.counting());
+        Assertions.assertTrue(entries.spliterator().hasCharacteristics(Spliterator.SIZED));
+        equals(
+                Ztream.of(testList).group(Student::getName).count(),
+                (long) group2.size()
+        );
+    }
+
+    @Test
+    void groupMultilayer() {
+        Map<String, Map<Integer, List<Integer>>> bilayer = new HashMap<>();
+        Map<String, Map<Boolean, Map<Integer, Long>>> trilayer = new HashMap<>();
+        for (var item : testList) {
+            String name = Any.of(item).get(Student::getName);
+            Integer age = Any.of(item).get(Student::getAge);
+            Boolean adult = Any.of(item).get(e -> Any.of(e.getAge()).map(a -> a >= 18).orElse(false));
+            Integer mod = Any.of(item).get(e -> Any.of(e.getAge()).map(a -> a % 2).orElse(-1));
+            bilayer.computeIfAbsent(name, k -> new HashMap<>()).computeIfAbsent(age, k -> new ArrayList<>()).add(age);
+            trilayer.computeIfAbsent(name, k -> new HashMap<>()).computeIfAbsent(adult, k -> new HashMap<>()).merge(mod, 1L, Long::sum);
+        }
+        Map<String, Map<Integer, List<Integer>>> bilayerResult = Ztream.of(testList).parallel().groupBilayer(Student::getName, Student::getAge, Student::getAge);
+        equals(bilayerResult, bilayer);
+
+        Function<Student, Boolean> adult = e -> Any.of(e.getAge()).map(a -> a >= 18).orElse(false);
+        Function<Student, Integer> mod = e -> Any.of(e.getAge()).map(a -> a % 2).orElse(-1);
+        Map<?, ?> trilayerResult = Ztream.of(testList).parallel().groupMultilayer(Collectors.counting(), Arrays.<Function<? super Student, ?>>asList(Student::getName, adult, mod));
+        Assertions.assertEquals(trilayer, trilayerResult);
     }
 
     @Test
@@ -91,6 +147,36 @@ class ZtreamTest {
                 Ztream.of(list).distinct(i -> i % 3),
                 map.values().stream()
         );
+        equals(
+                Ztream.of(list).parallel().distinct(i -> i % 3),
+                map.values().stream()
+        );
+        equals(
+                Ztream.of(list).distinctLast(i -> i % 3),
+                newList(6, 7, 8)
+        );
+        equals(
+                Ztream.of(1L, 2L, null, 1L, 3L).distinct(i -> i),
+                newList(1L, 2L, null, 3L)
+        );
+        Assertions.assertEquals(3, Ztream.of(list).parallel().distinctUnordered(i -> i % 3).count());
+        // range源带有SORTED特征，去重后保留排序特征
+        equals(Ztream.range(0, 100).distinct().firstIdx(i -> i > 50), 51);
+        equals(Ztream.range(0, 100).distinct().boxed().toList(), IntStream.range(0, 100).boxed().collect(Collectors.toList()));
+        equals(Ztream.range(0L, 10L).distinct().count(), 10L);
+        // 有序集合源按属性去重
+        equals(Ztream.of(new TreeSet<>(list)).distinct(i -> i % 3).toList(), newList(1, 2, 3));
+        TreeMap<String, Integer> scores = new TreeMap<>();
+        scores.put("a", 1);
+        scores.put("b", 2);
+        scores.put("c", 1);
+        equals(Ztream.of(scores).distinctValue().map(Map.Entry::getKey).toList(), newList("a", "b"));
+        // 跨多个批次分割，仍保持首次出现的顺序
+        List<Integer> large = Ztream.range(0, 10000).map(i -> (i * 7919) % 3000).toList();
+        Assertions.assertEquals(
+                large.stream().distinct().collect(Collectors.toList()),
+                Ztream.of(large).parallel().distinct(i -> i).toList()
+        );
     }
 
     @Test
@@ -198,6 +284,61 @@ class ZtreamTest {
                                         .thenComparing(Student::getAge, Comparator.nullsFirst(Comparator.reverseOrder()))
                         )
                 ));
+
+        List<Double> doubles = Ztream.range(0, 2000).boxed().map(i -> i % 13 == 0 ? null : (i * 7919 % 101) / 10.0).toList();
+        Consumer<Sorter<Double>> sorter = r -> r.desc(d -> d.intValue() % 3, false).asc(d -> d).asc(Comparator.comparing(Object::hashCode)).nullFirst(false);
+        Sorter<Double> chain = new Sorter<>();
+        sorter.accept(chain);
+        equals(Ztream.of(doubles).sort(sorter), doubles.stream().sorted(chain.getComparator()));
+        equals(Ztream.of(doubles).parallel().sort(sorter), doubles.stream().sorted(chain.getComparator()));
+
+        int[] calls = {0};
+        Ztream.of(doubles).sort(r -> r.asc(d -> {
+            calls[0]++;
+            return d;
+        })).toList();
+        equals(calls[0], (int) doubles.stream().filter(Objects::nonNull).count());
+    }
+
+    @Test
+    void sortEngine() {
+        Assertions.assertEquals(SortEngine.Strategy.RADIX, SortEngine.choose(100000, false, true));
+        Assertions.assertEquals(SortEngine.Strategy.PARALLEL, SortEngine.choose(100000, true, false));
+        Assertions.assertEquals(SortEngine.Strategy.TIM, SortEngine.choose(10, true, false));
+
+        List<Long> longs = Ztream.range(0, 5000).boxed().map(i -> i % 11 == 0 ? null : (long) (i * 7919 % 1000 - 500) * (i % 2 == 0 ? 1L : 1L << 40)).toList();
+        equals(Ztream.of(longs).asc(), longs.stream().sorted(Comparator.nullsFirst(Comparator.naturalOrder())));
+        equals(Ztream.of(longs).desc(false), longs.stream().sorted(Comparator.nullsFirst(Comparator.nullsLast(Comparator.reverseOrder()))));
+
+        List<Student> students = Ztream.range(0, 3000).boxed().map(i -> {
+            Student s = new Student();
+            s.setName("n" + i);
+            s.setAge(i % 7 == 0 ? null : i % 50);
+            return s;
+        }).toList();
+        Comparator<Student> byAge = Comparator.comparing(Student::getAge, Comparator.nullsLast(Comparator.reverseOrder()));
+        equals(Ztream.of(students).desc(Student::getAge, false), students.stream().sorted(Comparator.nullsFirst(byAge)));
+
+        int threshold = SortEngine.getParallelThreshold();
+        SortEngine.setParallelThreshold(16);
+        try {
+            equals(Ztream.of(students).parallel().sort(r -> r.asc(Student::getAge).desc(Student::getName)),
+                    students.stream().sorted(Comparator.nullsFirst(Comparator.comparing(Student::getAge, Comparator.nullsFirst(Comparator.<Integer>naturalOrder()))
+                            .thenComparing(Student::getName, Comparator.nullsFirst(Comparator.reverseOrder())))));
+            equals(Ztream.of(students).parallel().sort(r -> r.asc(Comparator.comparing(Student::getName))),
+                    students.stream().sorted(Comparator.nullsFirst(Comparator.comparing(Student::getName))));
+            // 超过并行归并的拆分粒度，相等键跨段合并后仍保持原顺序
+            List<Student> large = Ztream.range(0, 40000).boxed().map(i -> {
+                Student s = new Student();
+                s.setName("n" + i);
+                s.setAge((i * 31) % 97);
+                return s;
+            }).toList();
+            equals(Ztream.of(large).parallel().sort(r -> r.desc(Student::getAge).asc(s -> s.getName().length())),
+                    large.stream().sorted(Comparator.comparing(Student::getAge, Comparator.reverseOrder()).thenComparing(s -> s.getName().length())));
+        } finally {
+            SortEngine.setParallelThreshold(threshold);
+        }
     }
 
     @Test
@@ -253,6 +394,17 @@ class ZtreamTest {
                 testList.stream().filter(e -> !newList((String) null, "小猪").contains(Any.of(e).get(Student::getName)))
         );
 
+        List<Integer> ints = Ztream.range(0, 1000).boxed().toList();
+        List<Integer> ids = Ztream.range(0, 1000, true).boxed().filter(i -> i % 7 == 0).toList();
+        equals(Ztream.of(ints).in(i -> i, ids), ints.stream().filter(ids::contains));
+        equals(Ztream.of(ints).notIn(ids), ints.stream().filter(i -> !ids.contains(i)));
+        equals(Ztream.of(ints).in(i -> i % 5 == 0 ? null : (long) i, 3L, 11L, null), ints.stream().filter(i -> i % 5 == 0 || i == 3 || i == 11));
+        equals(Ztream.of(ints).inX(i -> (long) i, newList(1L, 2L)).notInX(i -> i, 1), newList(2));
+        Set<String> names = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        names.add("AB");
+        equals(Ztream.of("ab", "Ab", "c").in(s -> s, names), newList("ab", "Ab"));
+        equals(Ztream.of(ints).query(w -> w.in(i -> i, 1, 2, 3).or(o -> o.notIn(i -> i, ints))), newList(1, 2, 3));
+
         equals(
                 Ztream.of(testList).isNull(),
                 testList.stream().filter(Objects::isNull)
@@ -338,6 +490,53 @@ class ZtreamTest {
                                 Map::putAll)
         );
 
+        int[] calls = {0};
+        Function<Student, Integer> age = e -> {
+            calls[0]++;
+            return e.getAge();
+        };
+        equals(
+                Ztream.of(testList).query(w -> w
+                        .ge(age, 10)
+                        .le(age, 60)
+                        .gt(age, 11)
+                        .notIn(age, 30, 31)
+                        .or(o -> o.isNull(Student::getName).nonNull())
+                        .and(a -> a.like(Student::getName, "小").or(o -> o.between(age, null, 40)))
+                ),
+                testList.stream().filter(e -> {
+                    Integer a = Any.of(e).get(Student::getAge);
+                    String n = Any.of(e).get(Student::getName);
+                    boolean r = a != null && a > 11 && a <= 60 && a != 30 && a != 31;
+                    r = r || (n == null && e != null);
+                    return r && ((n != null && n.contains("小")) || (a != null && a <= 40));
+                })
+        );
+        Assertions.assertTrue(calls[0] <= testList.stream().filter(Objects::nonNull).count());
+
+        // 同一方法引用的两个实例视为同一属性，区间合并后每个元素只取一次值
+        AGE_CALLS[0] = 0;
+        equals(
+                Ztream.of(testList).query(w -> w.ge(ZtreamTest::countedAge, 10).le(ZtreamTest::countedAge, 60)),
+                testList.stream().filter(e -> e != null && e.getAge() != null && e.getAge() >= 10 && e.getAge() <= 60)
+        );
+        equals(AGE_CALLS[0], (int) testList.stream().filter(Objects::nonNull).count());
+
+        Wrapper<Student> wrapper = new Wrapper<Student>().eq(Student::getName, "小猪").between(Student::getAge, 1, 2);
+        equals(wrapper.getConditions().size(), 2);
+        equals(wrapper.getConditions().get(1).getOperator(), Condition.Operator.BETWEEN);
+
+        List<Integer> numbers = IntStream.range(0, 5000).boxed().collect(Collectors.toList());
+        Wrapper<Integer> adaptive = new Wrapper<Integer>()
+                .filter(e -> String.valueOf(e).hashCode() != Integer.MIN_VALUE)
+                .filter(e -> e % 100 == 0)
+                .adaptive(100);
+        List<Integer> result = Ztream.of(numbers).query(adaptive).toList();
+        equals(result, numbers.stream().filter(e -> e % 100 == 0).collect(Collectors.toList()));
+        equals(adaptive.getStatistics().size(), 2);
+        equals(adaptive.getStatistics().get(0).getIndex(), 1);
+        equals(adaptive.getStatistics().get(0).getPosition(), 0);
+        Assertions.assertTrue(new Wrapper<Integer>().getStatistics().isEmpty());
     }
 
     @Test
@@ -390,6 +589,60 @@ class ZtreamTest {
                 testList.stream().mapToInt(e -> Any.of(e).map(Student::getAge).orElse(0)).sum()
         );
 
+        equals(
+                Ztream.of(testList).parallel().avg(Student::getAge, 0, false),
+                (int) (testList.stream().filter(e -> e != null && e.getAge() != null).mapToInt(Student::getAge).average().getAsDouble())
+        );
+
+        equals(
+                Ztream.of(testList).avgInt(Student::getAge, 0),
+                testList.stream().mapToInt(e -> Any.of(e).map(Student::getAge).orElse(0)).average().getAsDouble()
+        );
+
+        equals(
+                Ztream.of(testList).parallel().avgDouble(Student::getAge, 0, false),
+                testList.stream().filter(e -> e != null && e.getAge() != null).mapToInt(Student::getAge).average().getAsDouble()
+        );
+
+        equals(
+                Ztream.of(1L, 2L, null).avgLong(e -> e, -1, false),
+                1.5
+        );
+        equals(
+                Ztream.of(Long.MAX_VALUE, Long.MAX_VALUE, 1L).parallel().avgLong(e -> e, -1),
+                (2.0 * Long.MAX_VALUE + 1) / 3
+        );
+
+        equals(
+                Ztream.of((Integer) null).avgInt(e -> e, -1),
+                -1D
+        );
+
+        equals(
+                Ztream.of(testList).parallel().sum(Student::getAge),
+                testList.stream().mapToInt(e -> Any.of(e).map(Student::getAge).orElse(0)).sum()
+        );
+
+        equals(
+                Ztream.of(Long.MAX_VALUE, 1L, null, -2L).sum(e -> e),
+                Long.MAX_VALUE - 1
+        );
+
+        equals(
+                Ztream.of(0.1, 0.2, null, 0.3).sum(e -> e, 0D),
+                0.6
+        );
+
+        equals(
+                Ztream.of(new BigDecimal("0.10"), null, new BigDecimal("2.5")).sum(e -> e),
+                new BigDecimal("2.60")
+        );
+
+        equals(
+                Ztream.of((Integer) null, null).sum(e -> e, -1),
+                -1
+        );
+
         equals(
                 Ztream.of(testList).max(Student::getAge),
                 testList.stream().mapToInt(e -> Any.of(e).map(Student::getAge).orElse(Integer.MIN_VALUE)).max().getAsInt()
@@ -399,6 +652,68 @@ class ZtreamTest {
                 Ztream.of(testList).nonNull(Student::getAge).min(Student::getAge),
                 testList.stream().mapToInt(e -> Any.of(e).map(Student::getAge).orElse(Integer.MAX_VALUE)).min().getAsInt()
         );
+
+        List<Integer> numbers = IntStream.range(0, 200000).boxed().collect(Collectors.toList());
+        long approx = Ztream.of(numbers, true).approxCountDistinct(i -> i % 100000);
+        Assertions.assertTrue(java.lang.Math.abs(approx - 100000) < 100000 * 0.03, String.valueOf(approx));
+        equals(Ztream.of(numbers).approxCountDistinct(i -> i % 10 == 0 ? null : "k" + i % 50, 12), 45L);
+        HyperLogLog left = Ztream.of(numbers.subList(0, 120000)).collect(ExCollectors.hll(i -> i, 14));
+        HyperLogLog right = HyperLogLog.fromBytes(Ztream.of(numbers.subList(80000, 200000)).collect(ExCollectors.hllLong(i -> i, 14)).toBytes());
+        equals(left.merge(right), Ztream.of(numbers).collect(ExCollectors.hll(i -> i, 14)));
+
+        List<Integer> shuffled = new ArrayList<>(numbers.subList(0, 1001));
+        Collections.shuffle(shuffled, new Random(1));
+        equals(Ztream.of(shuffled).median(i -> i), 500.0);
+        equals(Arrays.toString(Ztream.of(shuffled, true).percentiles(i -> i, 0.99, 0, 0.95, 1, 0.9995)), Arrays.toString(new double[]{990, 0, 950, 1000, 999.5}));
+        equals(Arrays.toString(Ztream.of(shuffled).percentiles(i -> i, 0.5, 0.25, 0.5)), Arrays.toString(new double[]{500, 250, 500}));
+        Assertions.assertNull(Ztream.of(testList).filter(Objects::isNull).median(Student::getAge));
+        equals(Ztream.of(1, 2, null, null).median(i -> i), 1.5);
+        equals(Ztream.of(1, 2, null, null).percentiles(i -> i, true, 0.5)[0], 0.5);
+        double[] quantiles = Ztream.of(numbers, true).approxPercentiles(i -> i, 200, false, 0.5, 0.99);
+        Assertions.assertTrue(java.lang.Math.abs(quantiles[0] - 100000) < 200000 * 0.02, String.valueOf(quantiles[0]));
+        Assertions.assertTrue(java.lang.Math.abs(quantiles[1] - 198000) < 200000 * 0.02, String.valueOf(quantiles[1]));
+        quantiles = Ztream.of(numbers).approxPercentiles(i -> i, 200, false, 0.99, 0.25, 0.99);
+        Assertions.assertTrue(java.lang.Math.abs(quantiles[1] - 50000) < 200000 * 0.02, String.valueOf(quantiles[1]));
+        equals(quantiles[0], quantiles[2]);
+
+        Summary summary = Ztream.of(testList, true).summary(Student::getAge);
+        DoubleSummaryStatistics expected = testList.stream().filter(e -> e != null && e.getAge() != null).mapToDouble(Student::getAge).summaryStatistics();
+        equals(summary.getCount(), expected.getCount());
+        equals(summary.getNullCount(), testList.size() - expected.getCount());
+        equals(summary.getSum(), expected.getSum());
+        equals(summary.getMin(), expected.getMin());
+        equals(summary.getMax(), expected.getMax());
+        Assertions.assertTrue(summary.isIntegral());
+        Assertions.assertEquals(Long.valueOf((long) expected.getSum()), summary.getLongSum());
+        Assertions.assertEquals(Long.valueOf((long) expected.getMin()), summary.getLongMin());
+        Assertions.assertEquals(Long.valueOf((long) expected.getMax()), summary.getLongMax());
+        Assertions.assertEquals(expected.getAverage(), summary.getMean(), 1e-9);
+        double variance = testList.stream().filter(e -> e != null && e.getAge() != null)
+                .mapToDouble(e -> (e.getAge() - expected.getAverage()) * (e.getAge() - expected.getAverage())).sum() / expected.getCount();
+        Assertions.assertEquals(variance, summary.getVariance(), 1e-9);
+        Summary big = Ztream.of(numbers, true).collect(ExCollectors.summaryInt(i -> i));
+        Assertions.assertEquals(199999 / 2.0, big.getMean(), 1e-6);
+        Assertions.assertEquals((200000.0 * 200000 - 1) / 12, big.getVariance(), 1e-3);
+        Summary overflow = Ztream.of(Long.MAX_VALUE, Long.MAX_VALUE, null, -1L).parallel().collect(ExCollectors.summaryLong(e -> e));
+        Assertions.assertEquals(BigDecimal.valueOf(Long.MAX_VALUE).multiply(BigDecimal.valueOf(2)).subtract(BigDecimal.ONE), overflow.getDecimalSum());
+        Assertions.assertThrows(ArithmeticException.class, overflow::getLongSum);
+        Assertions.assertEquals(Long.valueOf(Long.MAX_VALUE), overflow.getLongMax());
+        Assertions.assertEquals(Long.valueOf(-1), overflow.getLongMin());
+        equals(overflow.getNullCount(), 1L);
+        Summary mixed = Ztream.of(1, 2.5).summary(e -> e);
+        Assertions.assertFalse(mixed.isIntegral());
+        Assertions.assertNull(mixed.getLongSum());
+        Assertions.assertEquals(Double.valueOf(3.5), mixed.getSum());
+        Summary decimal = Ztream.of(new BigDecimal("0.1"), new BigDecimal("0.2")).summary(e -> e);
+        Assertions.assertEquals(0, new BigDecimal("0.3").compareTo(decimal.getDecimalSum()));
+        Assertions.assertEquals(Ztream.of(new BigDecimal("0.1"), new BigDecimal("0.2")).sum(e -> e), decimal.getDecimalSum());
+        Assertions.assertEquals(0.15, decimal.getMean(), 1e-12);
+        Summary empty = Ztream.of(testList).filter(Objects::isNull).summary(Student::getAge);
+        Assertions.assertNull(empty.getSum());
+        Assertions.assertNull(empty.getDecimalSum());
+        Assertions.assertNull(empty.getLongMin());
+        Map<Boolean, Summary> byAge = Ztream.of(testList).nonNull().groupBy(e -> e.getAge() != null && e.getAge() > 20, ExCollectors.summary(Student::getAge));
+        equals(byAge.get(true).getCount() + byAge.get(false).getCount(), expected.getCount());
     }
 
     @Test
@@ -458,9 +773,31 @@ class ZtreamTest {
 
 
     @Test
+    @SneakyThrows
     void judge() {
         Assertions.assertFalse(Ztream.of(testList).hadRepeat());
         Assertions.assertTrue(Ztream.of(testList).hadRepeat(Student::getName));
+        List<Integer> numbers = IntStream.range(0, 100000).boxed().collect(Collectors.toList());
+        Assertions.assertFalse(Ztream.of(numbers, true).hadRepeat());
+        Assertions.assertTrue(Ztream.of(numbers, true).hadRepeat(i -> i % 99999));
+        Assertions.assertFalse(Ztream.of(numbers).hadRepeat(i -> i, 100000, 1e-9));
+        Assertions.assertTrue(Ztream.of(numbers).hadRepeat(i -> i / 2, 100000, 0.01));
+        Set<Integer> duplicates = Ztream.of(numbers, true).findDuplicates(i -> i % 7 == 0 ? i % 3 : null);
+        equals(duplicates, new HashSet<>(Arrays.asList(0, 1, 2, null)));
+        equals(Ztream.of(numbers, true).duplicateCount(i -> i % 1000), 99000L);
+        equals(Ztream.of(testList).duplicateCount(Student::getName), testList.size() - Ztream.of(testList).distinct(Student::getName).count());
+        // 位数超过2^31时散列位置仍能覆盖全部位
+        Method index = BloomFilter.class.getDeclaredMethod("index", long.class, long.class, int.class, long.class);
+        index.setAccessible(true);
+        long bitSize = 1L << 40;
+        long maxIndex = 0;
+        Random random = new Random(1);
+        for (int i = 0; i < 1000; i++) {
+            long position = (long) index.invoke(null, random.nextLong(), random.nextLong(), i % 8, bitSize);
+            Assertions.assertTrue(position >= 0 && position < bitSize);
+            maxIndex = Math.max(maxIndex, position);
+        }
+        Assertions.assertTrue(maxIndex > Integer.MAX_VALUE);
         Assertions.assertTrue(Ztream.of(testList).anyMatch(Student::getName, Objects::isNull));
         Assertions.assertFalse(Ztream.of(testList).noneMatch(Student::getName, Objects::isNull));
         Assertions.assertFalse(Ztream.of(testList).allMatch(Student::getName, Objects::isNull));
@@ -472,11 +809,63 @@ class ZtreamTest {
 
         Assertions.assertFalse(Ztream.of((Boolean) null, null).allMatch(Functions.of(e -> e)));
 
+        for (int i = 0; i < 3; i++) {
+            int bound = i;
+            Predicate<? super Integer> safe = Functions.safe((Integer e) -> e > bound);
+            Assertions.assertFalse(safe.test(null));
+            Assertions.assertEquals(i < 2, safe.test(2));
+        }
+
+    }
+
+    @Test
+    void topK() {
+        Consumer<Sorter<Student>> sorter = r -> r.desc(Student::getName, false).asc(Student::getAge).nullFirst(false);
+        for (int k : new int[]{0, 1, 3, 100}) {
+            List<Student> sorted = Ztream.of(testList).sort(sorter).toList();
+            equals(Ztream.of(testList).topK(k, sorter), Ztream.of(sorted).limit(k).toList());
+            equals(Ztream.of(testList).parallel().topK(k, sorter), Ztream.of(sorted).limit(k).toList());
+            equals(Ztream.of(testList).bottomK(k, sorter), Ztream.of(sorted).skip(Math.max(0, sorted.size() - k)).toList());
+        }
+        List<Integer> list = Ztream.range(0, 10000).boxed().shuffle(1L).toList();
+        equals(Ztream.of(list).parallel().topK(5, r -> r.desc(i -> i % 100)), Ztream.of(list).desc(i -> i % 100).limit(5).toList());
+        equals(Ztream.of(list).parallel().bottomK(3, r -> r.asc(i -> i)), newList(9997, 9998, 9999));
+        // k远大于元素个数时按实际元素个数占用内存
+        equals(Ztream.of(3, 1, 2).collect(ExCollectors.top(Integer.MAX_VALUE - 16, Comparator.<Integer>naturalOrder(), false)), newList(1, 2, 3));
+        equals(Ztream.of(list).parallel().topK(Integer.MAX_VALUE, r -> r.desc(i -> i)).limit(2), newList(9999, 9998));
+    }
+
+    @Test
+    void reverse() {
+        List<Integer> list = Ztream.range(0, 1000).boxed().toList();
+        List<Integer> reversed = new ArrayList<>(list);
+        Collections.reverse(reversed);
+
+        equals(Ztream.of(list).reverse(), reversed);
+        equals(Ztream.of(list).parallel().reverse(), reversed);
+        equals(Ztream.of(new LinkedList<>(list)).reverse(), reversed);
+        equals(Ztream.of(new ArrayDeque<>(list)).reverse(), reversed);
+        equals(Ztream.of(list.toArray(new Integer[0])).reverse(), reversed);
+        equals(Ztream.of(list).filter(i -> i % 2 == 0).reverse(), Ztream.of(reversed).filter(i -> i % 2 == 0).toList());
+        equals(Ztream.of(list).parallel().map(i -> i + 1).reverse().limit(3), newList(1000, 999, 998));
+        Assertions.assertTrue(Ztream.of(list).reverse().spliterator().hasCharacteristics(Spliterator.SUBSIZED));
+        Assertions.assertTrue(Ztream.of(list).map(i -> i).reverse().spliterator().hasCharacteristics(Spliterator.SIZED));
     }
 
     @Test
     void shuffle() {
         Ztream.of(testList).shuffle().limit(3).nonNull().map(Student::getAge).forEach(System.out::println);
+
+        List<Integer> list = Ztream.range(0, 100).boxed().toList();
+        equals(Ztream.of(list).shuffle(7L).toList(), Ztream.of(list).shuffle(7L).toList());
+        equals(Ztream.of(list).shuffle(7L).asc(), list.stream());
+        Assertions.assertEquals(10, Ztream.of(list).sample(10).distinct().count());
+        Assertions.assertEquals(10, Ztream.of(list).parallel().sample(10).distinct().count());
+        Assertions.assertEquals(100, Ztream.of(list).sample(200).count());
+        Assertions.assertEquals(100, Ztream.of(list).parallel().sample(Integer.MAX_VALUE).distinct().count());
+        equals(Ztream.of(list).sample(5, 3L).toList(), Ztream.of(list).sample(5, 3L).toList());
+        Assertions.assertTrue(list.contains(Ztream.of(list).parallel().random().get()));
+        Assertions.assertTrue(Ztream.empty().random().isEmpty());
     }
 
     @Test
@@ -493,6 +882,35 @@ class ZtreamTest {
                 Ztream.of(testList).page(2, 3).toList(),
                 testList.subList(3, 6)
         );
+
+        List<Integer> numbers = IntStream.range(0, 100000).boxed().collect(Collectors.toList());
+        int[] mapped = {0};
+        List<Integer> page = Ztream.of(numbers, true).map(i -> {
+            synchronized (mapped) {
+                mapped[0]++;
+            }
+            return i * 2;
+        }).page(5000, 10).toList();
+        equals(page, IntStream.range(49990, 50000).map(i -> i * 2).boxed().collect(Collectors.toList()));
+        equals(mapped[0], 10);
+        equals(Ztream.of(numbers.toArray(new Integer[0])).skip(99998).toList(), newList(99998, 99999));
+        equals(Ztream.of(new ArrayDeque<>(numbers)).skip(50000).limit(3).toList(), newList(50000, 50001, 50002));
+        equals(Ztream.of(numbers).filter(i -> i % 2 == 0).page(2, 2).toList(), newList(4, 6));
+        equals(Ztream.of(numbers).skip(100).limit(5).count(), 5L);
+        Assertions.assertTrue(Ztream.of(numbers).page(100000, 10).isEmpty());
+        Assertions.assertTrue(Ztream.of(numbers).page(Long.MAX_VALUE, 10).isEmpty());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Ztream.of(numbers).slice(2, 1));
+
+        // 与集合的流一样延迟绑定，终端操作时才读取数据源
+        List<Integer> late = newList(1, 2, 3, 4);
+        Ztream<Integer> limited = Ztream.of(late).limit(3);
+        late.add(0, 0);
+        equals(limited.toList(), newList(0, 1, 2));
+        Ztream<Integer> skipped = Ztream.of(late).skip(1);
+        Ztream<Integer> mappedSkip = Ztream.of(late).map(i -> i * 10).skip(1);
+        late.clear();
+        Assertions.assertTrue(skipped.toList().isEmpty());
+        equals(mappedSkip.count(), 0L);
     }
 
     @Test
@@ -502,6 +920,95 @@ class ZtreamTest {
                 Ztream.of(testList).map(Student::getName, Student::getSex).toList(),
                 testList.stream().map(fun).flatMap(List::stream).collect(Collectors.toList())
         );
+
+        List<Integer> numbers = IntStream.range(0, 10000).boxed().collect(Collectors.toList());
+        List<Integer> indices = Ztream.of(numbers, true).map((e, i) -> e - i).toList();
+        Assertions.assertTrue(indices.stream().allMatch(e -> e == 0));
+        List<Integer> filtered = Ztream.of(numbers, true).filter(e -> e % 3 == 0).map((e, i) -> e / 3 - i).toList();
+        Assertions.assertTrue(filtered.stream().allMatch(e -> e == 0));
+        long[] sum = {0};
+        Ztream.of(numbers).forEachIndexed((e, i) -> sum[0] += i);
+        equals(sum[0], 10000L * 9999 / 2);
+    }
+
+    @Test
+    void primitive() {
+        equals(
+                Ztream.range(0, 5).boxed().toList(),
+                newList(0, 1, 2, 3, 4)
+        );
+        equals(
+                Ztream.range(1L, 3L, true).sum(),
+                6L
+        );
+        equals(
+                IntZtream.of(3, 1, 3, 0, 1, 0, 7).distinct().toList(),
+                newList(3, 1, 0, 7)
+        );
+        equals(
+                Ztream.range(0, 1000).parallel().map(i -> i % 10).distinct().sorted().toList(),
+                Ztream.range(0, 10).toList()
+        );
+        equals(
+                DoubleZtream.of(1.5, 0.0, 1.5, -0.0).distinct().boxed().toList(),
+                newList(1.5, 0.0, -0.0)
+        );
+        equals(
+                Ztream.range(0, 10).in(2, 4, 11).notIn(4).toList(),
+                newList(2)
+        );
+        equals(
+                Ztream.range(0, 10).between(3, 5).join(),
+                "3,4,5"
+        );
+        equals(
+                Ztream.range(0, 10).page(2, 3).toList(),
+                newList(3, 4, 5)
+        );
+        equals(
+                Ztream.range(0, 10).firstIdx(i -> i > 6),
+                7
+        );
+        equals(
+                Ztream.range(0, 10).firstIdx(i -> i > 60),
+                -1
+        );
+        List<Integer> numbers = IntStream.range(0, 10000).map(i -> i % 100).boxed().collect(Collectors.toList());
+        equals(Ztream.of(numbers, true).indexOf(i -> i == 42), 42);
+        equals(Ztream.of(numbers).filter(i -> i > 50).indexOf(i -> i == 60), 9);
+        equals(Ztream.of(numbers).lastIndexOf(i -> i == 42), 9942);
+        equals(Ztream.of(numbers, true).filter(i -> i < 50).lastIndexOf(i -> i == 42), 4992);
+        equals(Ztream.of(numbers).lastIndexOf(i -> i > 100), -1);
+        Assertions.assertArrayEquals(Ztream.of(numbers, true).indicesOf(i -> i == 99), IntStream.range(0, 100).map(i -> i * 100 + 99).toArray());
+
+        int[] mapped = {0};
+        equals(Ztream.of(numbers).map(i -> mapped[0]++).peek(i -> mapped[0]++).count(), 10000L);
+        equals(mapped[0], 0);
+        equals(Ztream.of(numbers).filter(i -> i < 10).count(), 1000L);
+        equals(Ztream.of(numbers).getLast(), 99);
+        equals(Ztream.of(3, 2, 1).getFirst(), 3);
+        Assertions.assertTrue(Ztream.of(new ArrayList<Integer>()).isEmpty());
+        Assertions.assertNull(Ztream.of(new ArrayList<Integer>()).getLast());
+        List<Integer> copy = Ztream.of(numbers).toList();
+        copy.clear();
+        equals(numbers.size(), 10000);
+        equals(
+                Ztream.range(0, 10).peak().getMax(),
+                9
+        );
+        equals(
+                IntZtream.empty().avg(-1),
+                -1D
+        );
+        var group = Ztream.range(0, 10).groupBy(i -> i % 3);
+        equals(
+                Arrays.toString(group.get(1)),
+                "[1, 4, 7]"
+        );
+        equals(
+                Ztream.of(testList).nonNull().nonNull(Student::getAge).mapToInt(Student::getAge).sum(),
+                testList.stream().filter(Objects::nonNull).filter(e -> e.getAge() != null).mapToInt(Student::getAge).sum()
+        );
     }
 
     public static <T> void equals(T o1, T o2) {
@@ -532,6 +1039,13 @@ class ZtreamTest {
         return set;
     }
 
+    private static final int[] AGE_CALLS = {0};
+
+    private static Integer countedAge(Student student) {
+        AGE_CALLS[0]++;
+        return student.getAge();
+    }
+
     public static String formatDate(Date date) {
         SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
         return sdf.format(date);